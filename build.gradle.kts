@@ -1,6 +1,8 @@
 plugins {
     id("org.springframework.boot") version "3.2.0"
+    id("org.springframework.boot.aot") version "3.2.0"
     id("io.spring.dependency-management") version "1.1.4"
+    id("me.champeau.jmh") version "0.7.2"
     java
 }
 
@@ -30,16 +32,23 @@ ext {
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-docker-compose")
     implementation("org.flywaydb:flyway-core")
+    implementation("org.springframework:spring-r2dbc")
+    implementation("io.r2dbc:r2dbc-pool")
     compileOnly("org.projectlombok:lombok")
     runtimeOnly("org.postgresql:postgresql")
+    runtimeOnly("org.postgresql:r2dbc-postgresql")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     annotationProcessor("org.projectlombok:lombok")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
-    testImplementation("org.springframework.boot:spring-boot-starter-webflux")
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("org.testcontainers:postgresql")
+    jmh("org.springframework:spring-test")
+    jmh("org.testcontainers:postgresql")
 }
 
 dependencyManagement {
@@ -49,5 +58,104 @@ dependencyManagement {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("load")
+    }
+}
+
+val loadTest by tasks.registering(Test::class) {
+    description = "Runs the multi-tenant load test suite, sized by load.* system properties."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform {
+        includeTags("load")
+    }
+    maxHeapSize = "2g"
+    systemProperties(System.getProperties()
+        .filterKeys { it.toString().startsWith("load.") }
+        .mapKeys { it.key.toString() })
+    outputs.upToDateWhen { false }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    // Allocation rate per operation is reported next to the score, so allocation regressions show up too
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+// AOT processing runs Application.main up to context refresh, while bean definitions are generated. Conditions are
+// frozen then, the servlet stack included.
+tasks.named<JavaExec>("processAot") {
+    systemProperty("spring.docker.compose.enabled", "false")
+}
+
+// Class data sharing only archives classes loaded from jars, so the generated AOT classes get a jar of their own
+val aotJar by tasks.registering(Jar::class) {
+    description = "Assembles a jar of the classes and resources generated by AOT processing."
+    archiveClassifier.set("aot")
+    from(sourceSets["aot"].output)
+}
+
+val cdsClasspath = files(tasks.jar, aotJar, configurations.runtimeClasspath)
+val cdsArchiveFile = layout.buildDirectory.file("cds/application.jsa")
+
+val cdsArchive by tasks.registering(JavaExec::class) {
+    description = "Trains an AppCDS archive by starting the application with AOT up to context refresh."
+    group = "build"
+    classpath = cdsClasspath
+    mainClass.set("com.example.Application")
+    javaLauncher.set(javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(21)) })
+    // Exits before lifecycle beans start, so the training run needs neither a web server nor tenant databases
+    jvmArgs(
+        "-XX:ArchiveClassesAtExit=${cdsArchiveFile.get().asFile}",
+        "-Dspring.aot.enabled=true",
+        "-Dspring.context.exit=onRefresh",
+        "-Dspring.docker.compose.enabled=false"
+    )
+    outputs.file(cdsArchiveFile)
+    doFirst {
+        cdsArchiveFile.get().asFile.parentFile.mkdirs()
+    }
+}
+
+val startupBenchmark by tasks.registering {
+    description = "Measures startup up to context refresh as is, with AOT and with AOT and the CDS archive."
+    group = "verification"
+    dependsOn(cdsArchive)
+    doLast {
+        val runs = (findProperty("startup.runs") as String?)?.toInt() ?: 5
+        val java = javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(21)) }
+            .get().executablePath.asFile.absolutePath
+        val modes = linkedMapOf(
+            "default" to listOf(),
+            "aot" to listOf("-Dspring.aot.enabled=true"),
+            "aot+cds" to listOf("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=${cdsArchiveFile.get().asFile}")
+        )
+
+        modes.forEach { (mode, options) ->
+            val elapsed = (1..runs).map {
+                val command = listOf(java, "-cp", cdsClasspath.asPath) + options + listOf(
+                    "-Dspring.context.exit=onRefresh",
+                    "-Dspring.docker.compose.enabled=false",
+                    "com.example.Application"
+                )
+
+                val startedAt = System.nanoTime()
+                val process = ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start()
+                check(process.waitFor() == 0) { "Startup failed (mode=$mode)" }
+                (System.nanoTime() - startedAt) / 1_000_000
+            }.sorted()
+
+            logger.lifecycle("Startup until context refresh (mode=$mode, runs=$runs, median=${elapsed[runs / 2]}ms, " +
+                "min=${elapsed.first()}ms, max=${elapsed.last()}ms)")
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TenantBenchmark {
+
+    private final String tenant = "company-a";
+
+    @Benchmark
+    public String bindGetUnbind() {
+        Tenant.bindRequest(tenant);
+        final var bound = Tenant.get();
+        Tenant.unbindRequest();
+        return bound;
+    }
+
+    @Benchmark
+    public String openGetClose() {
+        try (final var ignored = Tenant.open(tenant)) {
+            return Tenant.get();
+        }
+    }
+
+    @Benchmark
+    public String nestedOpenGetClose() {
+        try (final var outer = Tenant.open(tenant);
+             final var inner = Tenant.open("company-b")) {
+            return Tenant.get();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TenantInterceptorBenchmark {
+
+    private final Object handler = new Object();
+
+    private TenantInterceptor tenantInterceptor;
+    private MockHttpServletRequest validTenant;
+    private MockHttpServletRequest missingTenant;
+    private MockHttpServletRequest unknownTenant;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var tenants = new Tenants(List.of("company-a", "company-b"));
+        final var tenantReadiness = new TenantReadiness(tenants.getNames());
+        tenants.getNames().forEach(tenant -> tenantReadiness.set(tenant, TenantState.READY));
+
+        tenantInterceptor = new TenantInterceptor(
+                new ObjectMapper(),
+                tenants,
+                tenantReadiness,
+                new TenantRequests(),
+                new TenantMetrics(new SimpleMeterRegistry(), 100),
+                Duration.ofSeconds(5)
+        );
+
+        // Header values are copied, as a servlet container would hand out a new string per request
+        validTenant = new MockHttpServletRequest("GET", "/products");
+        validTenant.addHeader("X-Tenant-Id", new String("company-a"));
+
+        missingTenant = new MockHttpServletRequest("GET", "/products");
+
+        unknownTenant = new MockHttpServletRequest("GET", "/products");
+        unknownTenant.addHeader("X-Tenant-Id", "company-z");
+
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean validTenant() throws IOException {
+        final var handled = tenantInterceptor.preHandle(validTenant, response, handler);
+        tenantInterceptor.afterCompletion(validTenant, response, handler, null);
+        return handled;
+    }
+
+    @Benchmark
+    public boolean missingTenant() throws IOException {
+        // Clears the error body written by the previous invocation, so the response buffer does not keep growing
+        response.reset();
+        return tenantInterceptor.preHandle(missingTenant, response, handler);
+    }
+
+    @Benchmark
+    public boolean unknownTenant() throws IOException {
+        response.reset();
+        return tenantInterceptor.preHandle(unknownTenant, response, handler);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TenantSelectorBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int tenantCount;
+
+    private String[] tenants;
+    private TenantDataSources tenantDataSources;
+    private TenantSelector tenantSelector;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tenants = new String[tenantCount];
+        for (var index = 0; index < tenantCount; index++) {
+            tenants[index] = "company-" + index;
+        }
+
+        // Pools are only configured, not started, so no database is needed and every lookup hits an open pool
+        tenantDataSources = new TenantDataSources(tenant -> {
+            final var dataSource = new HikariDataSource();
+            dataSource.setPoolName("tenant-" + tenant);
+            return dataSource;
+        }, tenantCount, Duration.ofHours(1));
+        for (final var tenant : tenants) {
+            tenantDataSources.get(tenant);
+        }
+
+        final var tenantCatalog = new TenantCatalog(List.of(tenants), Map.of(), Map.of());
+        final var tenantReplicas = new TenantReplicas(tenantCatalog, tenantDataSources, Duration.ofHours(1), Duration.ZERO);
+        final var tenantSchemas = new TenantSchemas(tenantCatalog, tenantDataSources);
+        tenantSelector = new TenantSelector(tenantDataSources, tenantReplicas, tenantSchemas);
+        tenantSelector.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        tenantDataSources.close();
+    }
+
+    @Benchmark
+    public Object determineCurrentLookupKey() {
+        Tenant.bindRequest(nextTenant());
+        try {
+            return tenantSelector.determineCurrentLookupKey();
+        } finally {
+            Tenant.unbindRequest();
+        }
+    }
+
+    @Benchmark
+    public DataSource determineTargetDataSource() {
+        Tenant.bindRequest(nextTenant());
+        try {
+            return tenantSelector.determineTargetDataSource();
+        } finally {
+            Tenant.unbindRequest();
+        }
+    }
+
+    // Walks every tenant in turn, so large tenant counts also pay for cache misses in the pool map
+    private String nextTenant() {
+        final var tenant = tenants[next];
+        next = next + 1 == tenants.length ? 0 : next + 1;
+        return tenant;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.product;
+
+import com.example.product.api.ProductResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Compares reading a page as managed entities copied into responses with reading it straight into responses.
+// Scores and gc.alloc.rate.norm are per row, the JDBC work below both is the same and cancels out.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ProductPageBenchmark.PAGE_SIZE)
+public class ProductPageBenchmark {
+
+    static final int PAGE_SIZE = 100;
+
+    private static final String ENTITIES = "SELECT p FROM Product p WHERE p.id > :id ORDER BY p.id";
+
+    private static final String RESPONSES = """
+            SELECT new com.example.product.api.ProductResponse(p.id, p.name)
+            FROM Product p WHERE p.id > :id ORDER BY p.id
+            """;
+
+    private PostgreSQLContainer<?> databaseContainer;
+    private HikariDataSource dataSource;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        databaseContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres"));
+        databaseContainer.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(databaseContainer.getJdbcUrl());
+        dataSource.setUsername(databaseContainer.getUsername());
+        dataSource.setPassword(databaseContainer.getPassword());
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("db/migration")
+                .load()
+                .migrate();
+
+        try (final var connection = dataSource.getConnection();
+             final var statement = connection.prepareStatement("""
+                     INSERT INTO PRODUCT (PRODUCT_ID, PRODUCT_NAME)
+                     SELECT ID, 'Product ' || ID FROM generate_series(1, ?) AS ID
+                     """)) {
+            statement.setInt(1, PAGE_SIZE);
+            statement.executeUpdate();
+        }
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan(Product.class.getPackageName());
+        entityManagerFactoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect"
+        ));
+        entityManagerFactoryBean.afterPropertiesSet();
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+        databaseContainer.stop();
+    }
+
+    // What findAll did before, entities are hydrated, snapshotted and then copied one by one
+    @Benchmark
+    public List<ProductResponse> entitiesCopiedToResponses() {
+        return inTransaction(entityManager -> {
+            final var products = entityManager.createQuery(ENTITIES, Product.class)
+                    .setParameter("id", 0L)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+
+            final var responses = new ArrayList<ProductResponse>(products.size());
+            for (final var product : products) {
+                responses.add(new ProductResponse(product.getId(), product.getName()));
+            }
+            return responses;
+        });
+    }
+
+    // Read-only entities skip the snapshot, but are still hydrated and tracked by the persistence context
+    @Benchmark
+    public List<ProductResponse> readOnlyEntitiesCopiedToResponses() {
+        return inTransaction(entityManager -> {
+            final var products = entityManager.createQuery(ENTITIES, Product.class)
+                    .setParameter("id", 0L)
+                    .setMaxResults(PAGE_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultList();
+
+            final var responses = new ArrayList<ProductResponse>(products.size());
+            for (final var product : products) {
+                responses.add(new ProductResponse(product.getId(), product.getName()));
+            }
+            return responses;
+        });
+    }
+
+    // What findAll does now, the query ProductRepository derives when given ProductResponse as projection
+    @Benchmark
+    public List<ProductResponse> projectedToResponses() {
+        return inTransaction(entityManager -> entityManager.createQuery(RESPONSES, ProductResponse.class)
+                .setParameter("id", 0L)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> query) {
+        try (final var entityManager = entityManagerFactory.createEntityManager()) {
+            final var transaction = entityManager.getTransaction();
+            transaction.begin();
+            try {
+                return query.apply(entityManager);
+            } finally {
+                transaction.rollback();
+            }
+        }
+    }
+}
@@ -1,17 +1,13 @@
 package com.example;
 
-import com.example.internal.TenantsContextInitializer;
-import com.example.internal.TenantsDatabaseInitializer;
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.builder.SpringApplicationBuilder;
 
 @SpringBootApplication
 public class Application {
 
+    // Tenants are loaded into TenantCatalog once the context refreshes, so AOT processing needs none of them
     public static void main(String[] args) {
-        new SpringApplicationBuilder(Application.class)
-                .initializers(new TenantsContextInitializer())
-                .listeners(new TenantsDatabaseInitializer())
-                .run(args);
+        SpringApplication.run(Application.class, args);
     }
 }
@@ -0,0 +1,22 @@
+package com.example.internal;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+// Reactive counterpart of Tenant. A pipeline may hop threads at every operator, so the tenant travels in the
+// Reactor context of the subscription instead of a ThreadLocal.
+public final class ReactiveTenant {
+
+    private static final Class<ReactiveTenant> KEY = ReactiveTenant.class;
+
+    private ReactiveTenant() {
+    }
+
+    public static Mono<String> get() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.<String>getOrEmpty(KEY)));
+    }
+
+    public static Context with(String tenantId) {
+        return Context.of(KEY, tenantId);
+    }
+}
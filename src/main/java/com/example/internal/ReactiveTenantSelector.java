@@ -0,0 +1,30 @@
+package com.example.internal;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+final class ReactiveTenantSelector extends AbstractRoutingConnectionFactory {
+
+    private final TenantConnectionPools tenantConnectionPools;
+
+    ReactiveTenantSelector(TenantConnectionPools tenantConnectionPools) {
+        this.tenantConnectionPools = tenantConnectionPools;
+        setTargetConnectionFactories(Map.of());
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return ReactiveTenant.get().cast(Object.class);
+    }
+
+    @Override
+    protected Mono<ConnectionFactory> determineTargetConnectionFactory() {
+        return ReactiveTenant.get()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                        "Cannot determine target ConnectionFactory for lookup key [null]")))
+                .map(tenantConnectionPools::get);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.internal;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+
+import java.time.Duration;
+
+// Only for spring.main.web-application-type=reactive, the servlet stack keeps using JDBC through TenantSelector
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTenantsConfiguration {
+
+    @Bean(destroyMethod = "close")
+    TenantConnectionPools tenantConnectionPools(Environment environment,
+                                                TenantCatalog tenantCatalog,
+                                                TenantSchemas tenantSchemas) {
+        return new TenantConnectionPools(
+                tenantCatalog,
+                tenantSchemas,
+                environment.getProperty("datasource.tenants.r2dbc.maximum-size", Integer.class, 10),
+                environment.getProperty("datasource.tenants.r2dbc.maximum-idle-time", Duration.class, Duration.ofMinutes(1))
+        );
+    }
+
+    @Bean
+    ConnectionFactory connectionFactory(TenantConnectionPools tenantConnectionPools) {
+        final var reactiveTenantSelector = new ReactiveTenantSelector(tenantConnectionPools);
+        reactiveTenantSelector.afterPropertiesSet();
+
+        return reactiveTenantSelector;
+    }
+
+    // Bind markers are given up front, as they would otherwise be looked up from a connection of no tenant
+    @Bean
+    DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.builder()
+                .connectionFactory(connectionFactory)
+                .bindMarkers(BindMarkersFactory.indexed("$", 1))
+                .build();
+    }
+}
@@ -1,21 +1,65 @@
 package com.example.internal;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class ServiceConfiguration {
 
     @Bean
-    WebMvcConfigurer webMvcConfigurer(ObjectMapper objectMapper, Tenants tenants) {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    WebMvcConfigurer webMvcConfigurer(ObjectMapper objectMapper,
+                                      Tenants tenants,
+                                      TenantReadiness tenantReadiness,
+                                      TenantRequests tenantRequests,
+                                      TenantMetrics tenantMetrics,
+                                      Environment environment) {
+        final var retryAfter = environment.getProperty(
+                "datasource.tenants.readiness.retry-after", Duration.class, Duration.ofSeconds(5)
+        );
+        final var tenantInterceptor = new TenantInterceptor(
+                objectMapper, tenants, tenantReadiness, tenantRequests, tenantMetrics, retryAfter
+        );
+
         return new WebMvcConfigurer() {
             @Override
             public void addInterceptors(InterceptorRegistry registry) {
-                registry.addInterceptor(new TenantInterceptor(objectMapper, tenants));
+                registry.addInterceptor(tenantInterceptor)
+                        .excludePathPatterns("/admin/**");
             }
         };
     }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    TenantWebFilter tenantWebFilter(ObjectMapper objectMapper,
+                                    Tenants tenants,
+                                    TenantReadiness tenantReadiness,
+                                    TenantRequests tenantRequests,
+                                    TenantMetrics tenantMetrics,
+                                    Environment environment) {
+        final var retryAfter = environment.getProperty(
+                "datasource.tenants.readiness.retry-after", Duration.class, Duration.ofSeconds(5)
+        );
+        // Filters see every request, not only those of controllers, so actuator endpoints are left out as well
+        final var actuatorPath = environment.getProperty("management.endpoints.web.base-path", "/actuator");
+
+        return new TenantWebFilter(
+                objectMapper,
+                tenants,
+                tenantReadiness,
+                tenantRequests,
+                tenantMetrics,
+                retryAfter,
+                List.of("/admin/**", actuatorPath + "/**")
+        );
+    }
 }
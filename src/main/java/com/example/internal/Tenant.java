@@ -1,18 +1,67 @@
 package com.example.internal;
 
+import java.util.function.Supplier;
+
 public final class Tenant {
 
     private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
 
+    private static final Scope ROOT_SCOPE = new Scope(null);
+
     public static String get() {
         return CURRENT_TENANT.get();
     }
 
-    public static void set(String tenantId) {
+    // Binds the tenant until the returned scope is closed, which restores whatever was bound before
+    public static Scope open(String tenantId) {
+        final var previous = CURRENT_TENANT.get();
         CURRENT_TENANT.set(tenantId);
+
+        return previous == null ? ROOT_SCOPE : new Scope(previous);
     }
 
-    public static void unset() {
+    // Request threads start without a tenant, so the interceptor binds and clears it without keeping a scope
+    static void bindRequest(String tenantId) {
+        CURRENT_TENANT.set(tenantId);
+    }
+
+    static void unbindRequest() {
         CURRENT_TENANT.remove();
     }
+
+    public static void run(String tenantId, Runnable action) {
+        try (final var ignored = open(tenantId)) {
+            action.run();
+        }
+    }
+
+    public static <T> T call(String tenantId, Supplier<T> action) {
+        try (final var ignored = open(tenantId)) {
+            return action.get();
+        }
+    }
+
+    // Carries the tenant bound to the submitting thread over to whichever thread runs the action
+    public static Runnable wrap(Runnable action) {
+        final var tenantId = get();
+        return () -> run(tenantId, action);
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT_TENANT.remove();
+            } else {
+                CURRENT_TENANT.set(previous);
+            }
+        }
+    }
 }
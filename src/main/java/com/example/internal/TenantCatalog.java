@@ -0,0 +1,254 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+// Properties of every tenant, and of the databases shared by tenants living as schemas, kept in maps of their own
+// instead of the Environment, where each tenant would be one more property source for every lookup to walk.
+public final class TenantCatalog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantCatalog.class);
+
+    private static final String TENANT_PREFIX = "datasource.tenant.";
+    private static final String SHARED_DATABASE_PREFIX = "datasource.shared-database.";
+
+    // Kept to unquoted lower case identifiers, so the schema reads the same to Flyway, the driver and plain SQL
+    private static final Pattern SCHEMA_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final Set<String> names;
+    private final Map<String, Entry> tenants;
+    private final Map<String, Entry> sharedDatabases;
+
+    TenantCatalog(Collection<String> names, Map<String, Entry> tenants, Map<String, Entry> sharedDatabases) {
+        this.names = Set.copyOf(names);
+        this.tenants = new ConcurrentHashMap<>(tenants);
+        this.sharedDatabases = Map.copyOf(sharedDatabases);
+    }
+
+    // Reads datasource.tenants.catalog when given, a single file with the properties of every tenant, or else every
+    // properties file of datasource.tenants.location at once. Properties of the Environment win over both.
+    public static TenantCatalog load(ConfigurableEnvironment environment) {
+        final var startedAt = System.nanoTime();
+        final var names = new LinkedHashSet<>(Arrays.asList(
+                environment.getRequiredProperty("datasource.tenants.names", String[].class)
+        ));
+
+        final var properties = new HashMap<String, String>();
+        final var catalog = environment.getProperty("datasource.tenants.catalog");
+        final var location = environment.getProperty("datasource.tenants.location");
+        if (catalog != null) {
+            properties.putAll(read(List.of(new PathMatchingResourcePatternResolver().getResource(catalog))));
+        } else if (location != null) {
+            properties.putAll(read(Arrays.asList(scan(location))));
+        }
+
+        // Bound once here, looking tenants up in the Environment afterwards is what the catalog is meant to avoid
+        final var binder = Binder.get(environment);
+        binder.bind("datasource.tenant", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((name, value) -> properties.put(TENANT_PREFIX + name, value));
+        binder.bind("datasource.shared-database", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((name, value) -> properties.put(SHARED_DATABASE_PREFIX + name, value));
+
+        final var tenants = group(properties, TENANT_PREFIX, names);
+        final var sharedDatabases = group(properties, SHARED_DATABASE_PREFIX, null);
+        for (final var name : names) {
+            tenants.computeIfAbsent(name, key -> new Entry(TENANT_PREFIX + key + ".", Map.of()));
+            validate(tenants.get(name), sharedDatabases);
+            LOGGER.debug("Tenant loaded into catalog (tenant={}, properties={})", name, tenants.get(name));
+        }
+
+        LOGGER.info("Tenant catalog loaded (tenants={}, sharedDatabases={}, elapsed={}ms)",
+                tenants.size(), sharedDatabases.size(), Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        return new TenantCatalog(names, tenants, sharedDatabases);
+    }
+
+    public Set<String> getNames() {
+        return names;
+    }
+
+    // Never null, a tenant unknown to the catalog has no properties, so required ones fail naming what is missing
+    public Entry tenant(String tenant) {
+        final var entry = tenants.get(tenant);
+        return entry != null ? entry : new Entry(TENANT_PREFIX + tenant + ".", Map.of());
+    }
+
+    public Entry sharedDatabase(String sharedDatabase) {
+        final var entry = sharedDatabases.get(sharedDatabase);
+        return entry != null ? entry : new Entry(SHARED_DATABASE_PREFIX + sharedDatabase + ".", Map.of());
+    }
+
+    // A tenant registered at runtime replaces whatever was loaded for it at startup
+    void register(String tenant, Map<String, String> properties) {
+        tenants.put(tenant, new Entry(TENANT_PREFIX + tenant + ".", properties));
+    }
+
+    void remove(String tenant) {
+        tenants.remove(tenant);
+    }
+
+    // Absolute paths are scanned on the file system, anything else on the classpath as before
+    private static Resource[] scan(String location) {
+        final var directory = location.isEmpty() ? "" : location + "/";
+        final var pattern = Path.of(location).isAbsolute()
+                ? "file:" + directory + "*.properties"
+                : "classpath*:" + directory + "*.properties";
+
+        try {
+            return new PathMatchingResourcePatternResolver().getResources(pattern);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    // Files are read in parallel, and merged in the order they were found once all have been read
+    private static Map<String, String> read(List<Resource> resources) {
+        final var properties = new HashMap<String, String>();
+
+        try (final var executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("tenant-catalog-", 1).factory())) {
+            final var readings = executor.invokeAll(resources.stream()
+                    .map(resource -> (Callable<Properties>) () -> PropertiesLoaderUtils.loadProperties(resource))
+                    .toList());
+
+            for (final var reading : readings) {
+                reading.get().forEach((name, value) -> properties.put(name.toString(), value.toString()));
+            }
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException(cause);
+            }
+            throw new IllegalStateException("Unable to read tenant properties", exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading tenant properties", exception);
+        }
+
+        return properties;
+    }
+
+    // Splits properties by the name following the prefix, keeping only the given names unless there are none
+    private static Map<String, Entry> group(Map<String, String> properties, String prefix, Set<String> names) {
+        final var grouped = new HashMap<String, Map<String, String>>();
+        properties.forEach((property, value) -> {
+            final var separator = property.indexOf('.', prefix.length());
+            if (!property.startsWith(prefix) || separator < 0) {
+                return;
+            }
+
+            final var name = property.substring(prefix.length(), separator);
+            if (names == null || names.contains(name)) {
+                grouped.computeIfAbsent(name, key -> new HashMap<>()).put(property.substring(separator + 1), value);
+            }
+        });
+
+        final var entries = new HashMap<String, Entry>();
+        grouped.forEach((name, entry) -> entries.put(name, new Entry(prefix + name + ".", entry)));
+        return entries;
+    }
+
+    private static void validate(Entry tenant, Map<String, Entry> sharedDatabases) throws IllegalStateException {
+        if (tenant.containsProperty("schema")) {
+            tenant.getRequiredProperty("shared-database");
+            if (!SCHEMA_NAME.matcher(tenant.getProperty("schema")).matches()) {
+                throw new IllegalStateException(
+                        "Property '" + tenant.prefix + "schema' must be a lower case SQL identifier");
+            }
+            if (tenant.containsPropertyStartingWith("replica.")) {
+                throw new IllegalStateException("Property '" + tenant.prefix + "replica.url' is not supported for a schema");
+            }
+
+            final var sharedDatabase = tenant.getProperty("shared-database");
+            final var entry = sharedDatabases.getOrDefault(sharedDatabase,
+                    new Entry(SHARED_DATABASE_PREFIX + sharedDatabase + ".", Map.of()));
+            entry.getRequiredProperty("url");
+            entry.getRequiredProperty("username");
+            entry.getRequiredProperty("password");
+            return;
+        }
+
+        tenant.getRequiredProperty("url");
+        tenant.getRequiredProperty("username");
+        tenant.getRequiredProperty("password");
+
+        // A replica is optional, but once any of its properties is given it must point at a JDBC URL
+        if (tenant.containsPropertyStartingWith("replica.")
+                && !tenant.getRequiredProperty("replica.url").startsWith("jdbc:")) {
+            throw new IllegalStateException("Property '" + tenant.prefix + "replica.url' must be a JDBC URL");
+        }
+    }
+
+    public static final class Entry {
+
+        private final String prefix;
+        private final Map<String, String> properties;
+
+        private Entry(String prefix, Map<String, String> properties) {
+            this.prefix = prefix;
+            this.properties = Map.copyOf(properties);
+        }
+
+        public String getProperty(String name) {
+            return properties.get(name);
+        }
+
+        public String getProperty(String name, String defaultValue) {
+            return properties.getOrDefault(name, defaultValue);
+        }
+
+        public <T> T getProperty(String name, Class<T> type, T defaultValue) {
+            final var value = properties.get(name);
+            return value == null ? defaultValue : DefaultConversionService.getSharedInstance().convert(value, type);
+        }
+
+        public String getRequiredProperty(String name) throws IllegalStateException {
+            final var value = properties.get(name);
+            if (value == null) {
+                throw new IllegalStateException("Property '" + prefix + name + "' is required");
+            }
+            return value;
+        }
+
+        public boolean containsProperty(String name) {
+            return properties.containsKey(name);
+        }
+
+        private boolean containsPropertyStartingWith(String name) {
+            return properties.keySet().stream().anyMatch(property -> property.startsWith(name));
+        }
+
+        // Logged at startup and on registration, so passwords never make it to the logs
+        @Override
+        public String toString() {
+            final var masked = new HashMap<String, String>(properties);
+            masked.replaceAll((name, value) -> name.endsWith("password") ? "******" : value);
+            return masked.toString();
+        }
+    }
+}
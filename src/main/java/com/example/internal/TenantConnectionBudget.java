@@ -0,0 +1,157 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class TenantConnectionBudget implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantConnectionBudget.class);
+
+    private final int budget;
+    private final int maximumPoolSize;
+    private final long rebalanceIntervalMillis;
+    private final Map<String, PoolShare> shares = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rebalancer;
+
+    public TenantConnectionBudget(int budget, int maximumPoolSize, Duration rebalanceInterval) {
+        if (budget < 1 || maximumPoolSize < 1) {
+            throw new IllegalArgumentException("Connection budget and maximum pool size must be at least 1");
+        }
+
+        this.budget = budget;
+        this.maximumPoolSize = maximumPoolSize;
+        this.rebalanceIntervalMillis = rebalanceInterval.toMillis();
+        this.rebalancer = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().name("tenant-pool-rebalancer").daemon().unstarted(runnable));
+        this.rebalancer.scheduleWithFixedDelay(
+                this::rebalance, rebalanceIntervalMillis, rebalanceIntervalMillis, TimeUnit.MILLISECONDS
+        );
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public Map<String, Integer> getAllocation() {
+        final var allocation = new TreeMap<String, Integer>();
+        shares.forEach((tenant, share) -> allocation.put(tenant, share.size));
+        return allocation;
+    }
+
+    IMetricsTracker track(String tenant, HikariDataSource dataSource, PoolStats poolStats) {
+        final var share = new PoolShare(tenant, dataSource, poolStats);
+
+        synchronized (this) {
+            share.resize(Math.max(1, Math.min(maximumPoolSize, budget - allocated())));
+            shares.put(tenant, share);
+        }
+
+        LOGGER.info("Tenant pool joined connection budget (tenant={}, size={}, allocated={}, budget={})",
+                tenant, share.size, allocated(), budget);
+        return share;
+    }
+
+    synchronized void rebalance() {
+        final var open = shares.size();
+        if (open == 0) {
+            return;
+        }
+
+        // Every open pool keeps one connection, the remainder is split by how long each tenant held or waited for connections
+        final var spare = Math.max(0, budget - open);
+        final var demands = new HashMap<PoolShare, Long>();
+        var totalDemand = 0L;
+        for (final var share : shares.values()) {
+            final var demand = share.drainDemand(rebalanceIntervalMillis);
+            demands.put(share, demand);
+            totalDemand += demand;
+        }
+
+        for (final var entry : demands.entrySet()) {
+            final var proportional = totalDemand == 0 ? 0 : spare * entry.getValue() / totalDemand;
+            entry.getKey().resize((int) Math.min(maximumPoolSize, 1 + proportional));
+        }
+
+        if (open > budget) {
+            LOGGER.warn("More tenant pools open than connections in budget (open={}, budget={})", open, budget);
+        }
+        LOGGER.debug("Tenant pools rebalanced (allocation={}, budget={})", getAllocation(), budget);
+    }
+
+    @Override
+    public void close() {
+        rebalancer.shutdownNow();
+    }
+
+    private int allocated() {
+        var allocated = 0;
+        for (final var share : shares.values()) {
+            allocated += share.size;
+        }
+        return allocated;
+    }
+
+    private final class PoolShare implements IMetricsTracker {
+
+        private final String tenant;
+        private final HikariDataSource dataSource;
+        private final PoolStats poolStats;
+        private final LongAdder acquireNanos = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private volatile int size;
+
+        private PoolShare(String tenant, HikariDataSource dataSource, PoolStats poolStats) {
+            this.tenant = tenant;
+            this.dataSource = dataSource;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireNanos.add(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void close() {
+            shares.remove(tenant, this);
+            LOGGER.info("Tenant pool left connection budget (tenant={})", tenant);
+        }
+
+        private long drainDemand(long intervalMillis) {
+            // Threads still waiting were not recorded as acquisitions yet, so they count as waiting the whole interval
+            return usageMillis.sumThenReset()
+                    + TimeUnit.NANOSECONDS.toMillis(acquireNanos.sumThenReset())
+                    + poolStats.getPendingThreads() * intervalMillis;
+        }
+
+        private void resize(int size) {
+            if (this.size != size) {
+                this.size = size;
+                dataSource.getHikariConfigMXBean().setMaximumPoolSize(size);
+            }
+        }
+    }
+}
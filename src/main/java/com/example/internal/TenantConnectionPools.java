@@ -0,0 +1,101 @@
+package com.example.internal;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// R2DBC pools of the reactive stack, opened on the first request of a tenant. They start empty and drop idle
+// connections, so quiet tenants hold none, like their JDBC pools do.
+public final class TenantConnectionPools implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantConnectionPools.class);
+
+    private static final Option<String> SCHEMA = Option.valueOf("schema");
+
+    private final TenantCatalog tenantCatalog;
+    private final TenantSchemas tenantSchemas;
+    private final int maximumSize;
+    private final Duration maximumIdleTime;
+    private final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
+    public TenantConnectionPools(TenantCatalog tenantCatalog,
+                                 TenantSchemas tenantSchemas,
+                                 int maximumSize,
+                                 Duration maximumIdleTime) {
+        this.tenantCatalog = tenantCatalog;
+        this.tenantSchemas = tenantSchemas;
+        this.maximumSize = maximumSize;
+        this.maximumIdleTime = maximumIdleTime;
+    }
+
+    ConnectionPool get(String tenant) {
+        final var pool = pools.get(tenant);
+        return pool != null ? pool : pools.computeIfAbsent(tenant, this::open);
+    }
+
+    @EventListener
+    public void onTenantRemoved(TenantRemovedEvent event) {
+        final var pool = pools.remove(event.tenant());
+        if (pool != null) {
+            pool.dispose();
+            LOGGER.info("Closed tenant connection pool (tenant={}, reason=removed)", event.tenant());
+        }
+    }
+
+    @Override
+    public void close() {
+        pools.forEach((tenant, pool) -> {
+            if (pools.remove(tenant, pool)) {
+                pool.dispose();
+            }
+        });
+    }
+
+    // A tenant living as a schema gets a pool of its own here, with the schema fixed for its connections
+    private ConnectionPool open(String tenant) {
+        final var placement = tenantSchemas.placement(tenant);
+        final var sharedDatabase = TenantSchemas.sharedDatabaseOf(placement.pool());
+        final var database = sharedDatabase == null
+                ? tenantCatalog.tenant(tenant)
+                : tenantCatalog.sharedDatabase(sharedDatabase);
+
+        final var options = ConnectionFactoryOptions.parse(toR2dbcUrl(database.getRequiredProperty("url")))
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, database.getRequiredProperty("username"))
+                .option(ConnectionFactoryOptions.PASSWORD, database.getRequiredProperty("password"));
+        if (placement.schema() != null) {
+            options.option(SCHEMA, placement.schema());
+        }
+
+        final var configuration = ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("tenant-" + tenant + "-r2dbc")
+                .initialSize(0)
+                .maxSize(maximumSize)
+                .maxIdleTime(maximumIdleTime)
+                .build();
+
+        LOGGER.info("Opening tenant connection pool (tenant={}, schema={}, open={})",
+                tenant, placement.schema(), pools.size() + 1);
+        return new ConnectionPool(configuration);
+    }
+
+    // Tenants are configured with JDBC URLs, whose query parameters are driver specific and left out
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (!jdbcUrl.startsWith("jdbc:")) {
+            throw new IllegalArgumentException("Not a JDBC URL: " + jdbcUrl);
+        }
+
+        final var query = jdbcUrl.indexOf('?');
+        return "r2dbc:" + jdbcUrl.substring("jdbc:".length(), query < 0 ? jdbcUrl.length() : query);
+    }
+}
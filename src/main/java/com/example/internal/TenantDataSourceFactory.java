@@ -0,0 +1,118 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+final class TenantDataSourceFactory {
+
+    private final Environment environment;
+    private final TenantCatalog tenantCatalog;
+    private final TenantConnectionBudget connectionBudget;
+    private final TenantMetrics tenantMetrics;
+
+    TenantDataSourceFactory(Environment environment,
+                            TenantCatalog tenantCatalog,
+                            TenantConnectionBudget connectionBudget,
+                            TenantMetrics tenantMetrics) {
+        this.environment = environment;
+        this.tenantCatalog = tenantCatalog;
+        this.connectionBudget = connectionBudget;
+        this.tenantMetrics = tenantMetrics;
+    }
+
+    HikariDataSource create(String key) {
+        final var replicaOf = TenantReplicas.tenantOf(key);
+        final var sharedDatabase = TenantSchemas.sharedDatabaseOf(key);
+        final var dataSource = new HikariDataSource();
+
+        dataSource.setDriverClassName(environment.getRequiredProperty("spring.datasource.driver-class-name"));
+        if (replicaOf != null) {
+            // Replica credentials default to the primary ones, and an unreachable replica fails fast to the primary
+            final var tenant = tenantCatalog.tenant(replicaOf);
+            dataSource.setPoolName("tenant-" + replicaOf + "-replica");
+            dataSource.setJdbcUrl(tenant.getRequiredProperty("replica.url"));
+            dataSource.setUsername(tenant.getProperty("replica.username", tenant.getRequiredProperty("username")));
+            dataSource.setPassword(tenant.getProperty("replica.password", tenant.getRequiredProperty("password")));
+            dataSource.setReadOnly(true);
+            dataSource.setConnectionTimeout(environment.getProperty(
+                    "datasource.tenants.replica.connection-timeout", Duration.class, Duration.ofSeconds(2)
+            ).toMillis());
+        } else if (sharedDatabase != null) {
+            // Serves every tenant living as a schema of this database, TenantSchemas switches the schema on checkout
+            final var database = tenantCatalog.sharedDatabase(sharedDatabase);
+            dataSource.setPoolName("shared-" + sharedDatabase);
+            dataSource.setJdbcUrl(database.getRequiredProperty("url"));
+            dataSource.setUsername(database.getRequiredProperty("username"));
+            dataSource.setPassword(database.getRequiredProperty("password"));
+        } else {
+            final var tenant = tenantCatalog.tenant(key);
+            dataSource.setPoolName("tenant-" + key);
+            dataSource.setJdbcUrl(tenant.getRequiredProperty("url"));
+            dataSource.setUsername(tenant.getRequiredProperty("username"));
+            dataSource.setPassword(tenant.getRequiredProperty("password"));
+        }
+
+        // Lets the driver send a JDBC batch of inserts as multi-row statements instead of one by one
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", true);
+
+        // Connections are opened on demand and closed once idle, so quiet tenants do not hold any
+        dataSource.setMinimumIdle(0);
+        dataSource.setIdleTimeout(environment.getProperty(
+                "datasource.tenants.pool.connection-idle-timeout", Duration.class, Duration.ofMinutes(1)
+        ).toMillis());
+
+        // Pool size is handed out by the connection budget once the pool starts and adjusted as demand changes
+        dataSource.setMaximumPoolSize(connectionBudget.getMaximumPoolSize());
+        // Hikari takes a single tracker, so the budget and the metrics share it
+        dataSource.setMetricsTrackerFactory((poolName, poolStats) -> new CompositeMetricsTracker(
+                connectionBudget.track(key, dataSource, poolStats),
+                tenantMetrics.track(key, poolStats)
+        ));
+
+        return dataSource;
+    }
+
+    private static final class CompositeMetricsTracker implements IMetricsTracker {
+
+        private final IMetricsTracker first;
+        private final IMetricsTracker second;
+
+        private CompositeMetricsTracker(IMetricsTracker first, IMetricsTracker second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            first.recordConnectionCreatedMillis(connectionCreatedMillis);
+            second.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            first.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            second.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            first.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            second.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            first.recordConnectionTimeout();
+            second.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            first.close();
+            second.close();
+        }
+    }
+}
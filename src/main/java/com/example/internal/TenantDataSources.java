@@ -0,0 +1,167 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public final class TenantDataSources implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantDataSources.class);
+
+    private final Function<String, HikariDataSource> dataSourceFactory;
+    private final int maximumOpen;
+    private final long idleTtlNanos;
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    public TenantDataSources(Function<String, HikariDataSource> dataSourceFactory, int maximumOpen, Duration idleTtl) {
+        if (maximumOpen < 1) {
+            throw new IllegalArgumentException("Maximum number of open tenant pools must be at least 1");
+        }
+
+        this.dataSourceFactory = dataSourceFactory;
+        this.maximumOpen = maximumOpen;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().name("tenant-pool-evictor").daemon().unstarted(runnable));
+
+        final var evictionPeriod = Math.max(idleTtl.toMillis() / 2, 1000);
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    public HikariDataSource get(String tenant) {
+        final var pool = pools.get(tenant);
+        if (pool != null) {
+            pool.touch();
+            return pool.dataSource;
+        }
+
+        return open(tenant).dataSource;
+    }
+
+    public Connection getConnection(String tenant) throws SQLException {
+        while (true) {
+            final var dataSource = get(tenant);
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException exception) {
+                // The pool was evicted between lookup and checkout, so a fresh one is opened on the next attempt
+                if (!dataSource.isClosed()) {
+                    throw exception;
+                }
+            }
+        }
+    }
+
+    public void forEach(BiConsumer<String, HikariDataSource> action) {
+        pools.forEach((tenant, pool) -> action.accept(tenant, pool.dataSource));
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    public void evict(String tenant) {
+        final var pool = pools.remove(tenant);
+        if (pool != null) {
+            close(tenant, pool, "removed");
+        }
+    }
+
+    void evictIdle() {
+        final var now = System.nanoTime();
+
+        pools.forEach((tenant, pool) -> {
+            if (now - pool.lastAccess > idleTtlNanos && !pool.isBusy() && pools.remove(tenant, pool)) {
+                close(tenant, pool, "idle");
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        evictor.shutdownNow();
+        pools.forEach((tenant, pool) -> {
+            if (pools.remove(tenant, pool)) {
+                close(tenant, pool, "shutdown");
+            }
+        });
+    }
+
+    private TenantPool open(String tenant) {
+        final var pool = pools.computeIfAbsent(tenant, key -> {
+            LOGGER.info("Opening tenant pool (tenant={}, open={})", key, pools.size() + 1);
+            return new TenantPool(dataSourceFactory.apply(key));
+        });
+
+        if (pools.size() > maximumOpen) {
+            evictLeastRecentlyUsed(tenant);
+        }
+
+        return pool;
+    }
+
+    private synchronized void evictLeastRecentlyUsed(String opened) {
+        while (pools.size() > maximumOpen) {
+            String eldestTenant = null;
+            TenantPool eldestPool = null;
+
+            for (final var entry : pools.entrySet()) {
+                final var pool = entry.getValue();
+                if (entry.getKey().equals(opened) || pool.isBusy()) {
+                    continue;
+                }
+                if (eldestPool == null || pool.lastAccess < eldestPool.lastAccess) {
+                    eldestTenant = entry.getKey();
+                    eldestPool = pool;
+                }
+            }
+
+            if (eldestPool == null) {
+                LOGGER.warn("Every tenant pool is busy, exceeding limit (open={}, maximum={})", pools.size(), maximumOpen);
+                return;
+            }
+
+            if (pools.remove(eldestTenant, eldestPool)) {
+                close(eldestTenant, eldestPool, "least recently used");
+            }
+        }
+    }
+
+    private void close(String tenant, TenantPool pool, String reason) {
+        pool.dataSource.close();
+        LOGGER.info("Closed tenant pool (tenant={}, reason={}, open={})", tenant, reason, pools.size());
+    }
+
+    private static final class TenantPool {
+
+        private final HikariDataSource dataSource;
+        private volatile long lastAccess;
+
+        private TenantPool(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.lastAccess = System.nanoTime();
+        }
+
+        private void touch() {
+            lastAccess = System.nanoTime();
+        }
+
+        private boolean isBusy() {
+            final var poolMXBean = dataSource.getHikariPoolMXBean();
+            return poolMXBean != null && poolMXBean.getActiveConnections() > 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+public final class TenantFanOut {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantFanOut.class);
+
+    private final Tenants tenants;
+    private final TenantReadiness tenantReadiness;
+    private final TenantRequests tenantRequests;
+    private final int concurrency;
+    private final Duration timeout;
+
+    public TenantFanOut(Tenants tenants,
+                        TenantReadiness tenantReadiness,
+                        TenantRequests tenantRequests,
+                        int concurrency,
+                        Duration timeout) {
+        this.tenants = tenants;
+        this.tenantReadiness = tenantReadiness;
+        this.tenantRequests = tenantRequests;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeout = timeout;
+    }
+
+    // Runs the query once per ready tenant with that tenant bound, tenants that fail or are too slow are left out.
+    // A tenant is only started once a permit is free, and its timeout counts from then.
+    public <T> TenantFanOutResult<T> query(Supplier<T> query) {
+        final var startedAt = System.nanoTime();
+        final var results = new TreeMap<String, T>();
+        final var failures = new TreeMap<String, String>();
+
+        final var queries = new LinkedHashMap<String, CompletableFuture<T>>();
+        final var permits = new Semaphore(concurrency);
+        final var threads = Thread.ofVirtual().name("tenant-fan-out-", 1);
+
+        for (final var tenant : tenants.getNames()) {
+            if (!tenantReadiness.isReady(tenant)) {
+                failures.put(tenant, "Tenant is " + tenantReadiness.get(tenant));
+                continue;
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while querying tenants " + queries.keySet(), exception);
+            }
+
+            final var result = new CompletableFuture<T>();
+            final var thread = threads.start(() -> {
+                try {
+                    result.complete(call(tenant, query));
+                } catch (Throwable exception) {
+                    result.completeExceptionally(exception);
+                }
+            });
+
+            // A query timing out gives its permit back right away, even if its database ignores the interrupt
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, exception) -> {
+                permits.release();
+                if (exception instanceof TimeoutException) {
+                    thread.interrupt();
+                }
+            });
+            queries.put(tenant, result);
+        }
+
+        queries.forEach((tenant, result) -> {
+            try {
+                results.put(tenant, result.get());
+            } catch (ExecutionException exception) {
+                failures.put(tenant, exception.getCause() instanceof TimeoutException
+                        ? "Timed out after " + timeout.toMillis() + "ms"
+                        : String.valueOf(exception.getCause()));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                failures.put(tenant, "Interrupted");
+            }
+        });
+
+        LOGGER.info("Tenants queried (tenants={}, succeeded={}, failed={}, elapsed={}ms)",
+                tenants.getNames().size(), results.size(), failures.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return new TenantFanOutResult<>(results, failures);
+    }
+
+    // Counted like a request, so removing the tenant waits for its query to finish
+    private <T> T call(String tenant, Supplier<T> query) {
+        final var bulkhead = tenantRequests.acquire(tenant);
+        try {
+            return Tenant.call(tenant, query);
+        } finally {
+            tenantRequests.release(bulkhead);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.internal;
+
+import java.util.Map;
+
+public record TenantFanOutResult<T>(Map<String, T> results, Map<String, String> failures) {
+}
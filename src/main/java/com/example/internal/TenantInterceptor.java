@@ -1,29 +1,44 @@
 package com.example.internal;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ProblemDetail;
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.web.servlet.ModelAndView;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import java.io.IOException;
+import java.time.Duration;
 
-public final class TenantInterceptor implements HandlerInterceptor {
+public final class TenantInterceptor implements AsyncHandlerInterceptor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TenantInterceptor.class);
 
     private static final String X_TENANT_ID = "X-Tenant-Id";
+    private static final String STARTED_AT = TenantInterceptor.class.getName() + ".startedAt";
+    private static final String BULKHEAD = TenantInterceptor.class.getName() + ".bulkhead";
 
-    private final ObjectMapper objectMapper;
     private final Tenants tenants;
-
-    public TenantInterceptor(ObjectMapper objectMapper, Tenants tenants) {
-        this.objectMapper = objectMapper;
+    private final TenantReadiness tenantReadiness;
+    private final TenantRequests tenantRequests;
+    private final TenantMetrics tenantMetrics;
+    private final String retryAfterSeconds;
+    private final TenantProblems tenantProblems;
+
+    public TenantInterceptor(ObjectMapper objectMapper,
+                             Tenants tenants,
+                             TenantReadiness tenantReadiness,
+                             TenantRequests tenantRequests,
+                             TenantMetrics tenantMetrics,
+                             Duration retryAfter) {
         this.tenants = tenants;
+        this.tenantReadiness = tenantReadiness;
+        this.tenantRequests = tenantRequests;
+        this.tenantMetrics = tenantMetrics;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.tenantProblems = new TenantProblems(objectMapper);
     }
 
     @Override
@@ -33,46 +48,91 @@ public final class TenantInterceptor implements HandlerInterceptor {
             return respondMissingTenant(response);
         }
 
-        if (!tenants.getNames().contains(xTenantId)) {
+        final var tenantId = tenants.resolve(xTenantId);
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Already counted when the request was first dispatched, the tenant may have been removed since
+            return selectTenantAndContinue(tenantId == null ? xTenantId : tenantId);
+        }
+
+        if (tenantId == null) {
             return respondUnknownTenant(xTenantId, response);
         }
 
-        return selectTenantAndContinue(xTenantId);
+        // Counted before checking readiness, so a tenant being removed either sees this request or rejects it
+        final var bulkhead = tenantRequests.tryAcquire(tenantId);
+        if (bulkhead == null) {
+            return respondTenantThrottled(tenantId, response);
+        }
+        if (!tenantReadiness.isReady(tenantId)) {
+            tenantRequests.release(bulkhead);
+            return respondTenantNotReady(tenantId, response);
+        }
+
+        // Kept with the request, so its release cannot reach the bulkhead of the tenant registered again meanwhile
+        request.setAttribute(BULKHEAD, bulkhead);
+
+        // Set on the first dispatch only, so latency of async requests covers the whole exchange
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return selectTenantAndContinue(tenantId);
     }
 
     @Override
-    public void postHandle(HttpServletRequest request,
-                           HttpServletResponse response,
-                           Object handler,
-                           ModelAndView modelAndView) {
-        Tenant.unset();
+    public void afterCompletion(HttpServletRequest request,
+                                HttpServletResponse response,
+                                Object handler,
+                                Exception exception) {
+        // Runs even when the handler throws, unlike postHandle, so the tenant never outlives its request
+        final var tenantId = Tenant.get();
+        if (request.getAttribute(STARTED_AT) instanceof Long startedAt) {
+            tenantMetrics.recordRequest(tenantId, response.getStatus(), System.nanoTime() - startedAt);
+        }
+
+        if (request.getAttribute(BULKHEAD) instanceof TenantRequests.Bulkhead bulkhead) {
+            request.removeAttribute(BULKHEAD);
+            tenantRequests.release(bulkhead);
+        }
+        Tenant.unbindRequest();
         LOGGER.debug("Removed tenant assigned previously before sending response to client");
     }
 
-    private boolean respondMissingTenant(HttpServletResponse response) throws IOException {
-        final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        problemDetail.setTitle("Missing database tenant");
-        problemDetail.setDetail("Header X-Tenant-Id was not present in the request");
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request,
+                                               HttpServletResponse response,
+                                               Object handler) {
+        // The request is still in flight, it is released by afterCompletion of the async dispatch
+        Tenant.unbindRequest();
+        LOGGER.debug("Removed tenant from request thread while response is produced asynchronously");
+    }
 
-        response.setStatus(HttpStatus.BAD_REQUEST.value());
-        response.getWriter().print(objectMapper.writeValueAsString(problemDetail));
+    private boolean respondMissingTenant(HttpServletResponse response) throws IOException {
+        tenantMetrics.recordRejection(null, "missing");
+        tenantProblems.missingTenant().write(response, null);
         return false;
     }
 
     private boolean respondUnknownTenant(String xTenantId, HttpServletResponse response) throws IOException {
-        final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
-        problemDetail.setTitle("Unknown database tenant");
-        problemDetail.setDetail("Value of header X-Tenant-Id does not match a known database tenant");
-        problemDetail.setProperty("tenantId", xTenantId);
+        tenantMetrics.recordRejection(null, "unknown");
+        tenantProblems.unknownTenant().write(response, xTenantId);
+        return false;
+    }
+
+    private boolean respondTenantThrottled(String tenantId, HttpServletResponse response) throws IOException {
+        tenantMetrics.recordRejection(tenantId, "throttled");
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        tenantProblems.tenantThrottled().write(response, tenantId);
+        return false;
+    }
 
-        response.setStatus(HttpStatus.BAD_REQUEST.value());
-        response.getWriter().print(objectMapper.writeValueAsString(problemDetail));
+    private boolean respondTenantNotReady(String tenantId, HttpServletResponse response) throws IOException {
+        tenantMetrics.recordRejection(tenantId, "not_ready");
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        tenantProblems.tenantNotReady(tenantReadiness.get(tenantId)).write(response, tenantId);
         return false;
     }
 
-    private boolean selectTenantAndContinue(String xTenantId) {
-        Tenant.set(xTenantId);
-        LOGGER.debug("Handling request for tenant {}", Tenant.get());
+    private boolean selectTenantAndContinue(String tenantId) {
+        Tenant.bindRequest(tenantId);
+        LOGGER.debug("Handling request for tenant {}", tenantId);
         return true;
     }
 }
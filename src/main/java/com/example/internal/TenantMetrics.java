@@ -0,0 +1,153 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+// Tenants get their own tag in the order they are first seen, up to a limit, every tenant after that is
+// reported under OTHER, so the number of series stays bounded however many tenants are registered
+public final class TenantMetrics {
+
+    static final String OTHER = "other";
+    static final String NONE = "none";
+
+    private static final String[] OUTCOMES = {"INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    private final MeterRegistry meterRegistry;
+    private final int maximumTagged;
+    private final Map<String, String> tags = new ConcurrentHashMap<>();
+    private final Map<String, Timer[]> requestTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> rejectionCounters = new ConcurrentHashMap<>();
+    private final Map<String, Set<PoolStats>> pools = new ConcurrentHashMap<>();
+
+    public TenantMetrics(MeterRegistry meterRegistry, int maximumTagged) {
+        this.meterRegistry = meterRegistry;
+        this.maximumTagged = maximumTagged;
+    }
+
+    String tag(String tenant) {
+        if (tenant == null) {
+            return NONE;
+        }
+
+        final var tag = tags.get(tenant);
+        if (tag != null) {
+            return tag;
+        }
+
+        synchronized (tags) {
+            if (tags.size() >= maximumTagged) {
+                return tags.getOrDefault(tenant, OTHER);
+            }
+
+            return tags.computeIfAbsent(tenant, key -> key);
+        }
+    }
+
+    void recordRequest(String tenant, int status, long elapsedNanos) {
+        final var timers = requestTimers.computeIfAbsent(tag(tenant), this::requestTimers);
+        final var outcome = Math.min(Math.max(status / 100, 1), OUTCOMES.length) - 1;
+        timers[outcome].record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordRejection(String tenant, String reason) {
+        rejectionCounter(tenant, reason).increment();
+    }
+
+    // Tenant IDs that did not resolve come from clients and are never used as tags
+    Counter rejectionCounter(String tenant, String reason) {
+        final var tag = tag(tenant);
+        return rejectionCounters.computeIfAbsent(tag, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(reason, key -> Counter.builder("tenant.requests.rejected")
+                        .tag("tenant", tag)
+                        .tag("reason", reason)
+                        .register(meterRegistry));
+    }
+
+    IMetricsTracker track(String tenant, PoolStats poolStats) {
+        final var tag = tag(tenant);
+        final var bucket = pools.computeIfAbsent(tag, this::registerPoolGauges);
+        bucket.add(poolStats);
+
+        return new PoolTracker(
+                bucket,
+                poolStats,
+                Timer.builder("tenant.pool.acquire").tag("tenant", tag).register(meterRegistry),
+                Counter.builder("tenant.pool.timeouts").tag("tenant", tag).register(meterRegistry)
+        );
+    }
+
+    private Timer[] requestTimers(String tag) {
+        final var timers = new Timer[OUTCOMES.length];
+        for (var index = 0; index < OUTCOMES.length; index++) {
+            timers[index] = Timer.builder("tenant.requests")
+                    .tag("tenant", tag)
+                    .tag("outcome", OUTCOMES[index])
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(meterRegistry);
+        }
+
+        return timers;
+    }
+
+    // Pools of tenants sharing the OTHER tag are summed up, the gauges of a tagged tenant only ever see its pool
+    private Set<PoolStats> registerPoolGauges(String tag) {
+        final Set<PoolStats> bucket = ConcurrentHashMap.newKeySet();
+
+        registerPoolGauge("tenant.pool.active", tag, bucket, PoolStats::getActiveConnections);
+        registerPoolGauge("tenant.pool.idle", tag, bucket, PoolStats::getIdleConnections);
+        registerPoolGauge("tenant.pool.pending", tag, bucket, PoolStats::getPendingThreads);
+        registerPoolGauge("tenant.pool.max", tag, bucket, PoolStats::getMaxConnections);
+
+        return bucket;
+    }
+
+    private void registerPoolGauge(String name, String tag, Set<PoolStats> bucket, ToIntFunction<PoolStats> value) {
+        Gauge.builder(name, bucket, stats -> stats.stream().mapToInt(value).sum())
+                .tag("tenant", tag)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    private static final class PoolTracker implements IMetricsTracker {
+
+        private final Set<PoolStats> bucket;
+        private final PoolStats poolStats;
+        private final Timer acquireTimer;
+        private final Counter timeouts;
+
+        private PoolTracker(Set<PoolStats> bucket, PoolStats poolStats, Timer acquireTimer, Counter timeouts) {
+            this.bucket = bucket;
+            this.poolStats = poolStats;
+            this.acquireTimer = acquireTimer;
+            this.timeouts = timeouts;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireTimer.record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+            bucket.remove(poolStats);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.internal;
+
+import java.time.Duration;
+
+record TenantMigration(String tenant, int migrationsExecuted, Duration elapsed) {
+}
@@ -0,0 +1,160 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+final class TenantMigrations {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantMigrations.class);
+
+    private static final Pattern VERSIONED_MIGRATION = Pattern.compile("^V([0-9._]+)__.+\\.sql$");
+
+    private static final String LATEST_APPLIED_MIGRATION = """
+            SELECT LATEST.VERSION, LATEST.CHECKSUM, LATEST.SUCCESS, TOTAL.APPLIED, TOTAL.FAILED
+            FROM %1$s LATEST,
+                 (SELECT COUNT(*) FILTER (WHERE SUCCESS) AS APPLIED, COUNT(*) FILTER (WHERE NOT SUCCESS) AS FAILED
+                  FROM %1$s
+                  WHERE VERSION IS NOT NULL) TOTAL
+            WHERE LATEST.VERSION IS NOT NULL
+            ORDER BY LATEST.INSTALLED_RANK DESC
+            LIMIT 1
+            """;
+
+    private final int count;
+    private final String latestVersion;
+    private final Integer latestChecksum;
+
+    private TenantMigrations(int count, String latestVersion, Integer latestChecksum) {
+        this.count = count;
+        this.latestVersion = latestVersion;
+        this.latestChecksum = latestChecksum;
+    }
+
+    static TenantMigrations resolve(String locations) {
+        final var resolver = new PathMatchingResourcePatternResolver();
+        final var migrations = new ArrayList<Migration>();
+
+        try {
+            for (final var location : locations.split(",")) {
+                final var path = location.trim();
+                if (path.contains(":") && !path.startsWith("classpath:")) {
+                    LOGGER.info("Migrations outside the classpath are always checked by Flyway (location={})", path);
+                    return new TenantMigrations(-1, null, null);
+                }
+
+                final var pattern = "classpath*:" + path.replaceFirst("^classpath:", "").replaceAll("/$", "") + "/**/V*__*.sql";
+                for (final var resource : resolver.getResources(pattern)) {
+                    final var matcher = VERSIONED_MIGRATION.matcher(resource.getFilename());
+                    if (matcher.matches()) {
+                        migrations.add(new Migration(parseVersion(matcher.group(1)), checksum(resource)));
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new IllegalStateException("Unable to resolve tenant migrations (locations=" + locations + ")", exception);
+        }
+
+        if (migrations.isEmpty()) {
+            return new TenantMigrations(0, null, null);
+        }
+
+        final var latest = migrations.stream()
+                .max(Comparator.comparing(Migration::version, TenantMigrations::compareVersions))
+                .orElseThrow();
+        final var latestVersion = Arrays.stream(latest.version())
+                .map(BigInteger::toString)
+                .collect(Collectors.joining("."));
+
+        LOGGER.info("Tenant migrations resolved (locations={}, migrations={}, latest={}, checksum={})",
+                locations, migrations.size(), latestVersion, latest.checksum());
+        return new TenantMigrations(migrations.size(), latestVersion, latest.checksum());
+    }
+
+    // Every schema of a shared database has its own history table, qualified here as the search path is left as is
+    boolean isUpToDate(DataSource dataSource, String schema) {
+        if (latestVersion == null) {
+            return false;
+        }
+
+        final var historyTable = schema == null
+                ? "FLYWAY_SCHEMA_HISTORY"
+                : "\"" + schema.replace("\"", "\"\"") + "\".FLYWAY_SCHEMA_HISTORY";
+
+        try (final var connection = dataSource.getConnection();
+             final var statement = connection.prepareStatement(LATEST_APPLIED_MIGRATION.formatted(historyTable));
+             final var resultSet = statement.executeQuery()) {
+            if (!resultSet.next()) {
+                return false;
+            }
+
+            return latestVersion.equals(resultSet.getString("VERSION"))
+                    && latestChecksum.equals(resultSet.getObject("CHECKSUM", Integer.class))
+                    && resultSet.getBoolean("SUCCESS")
+                    && resultSet.getLong("APPLIED") == count
+                    && resultSet.getLong("FAILED") == 0;
+        } catch (SQLException exception) {
+            // Most likely the schema history table does not exist yet, which Flyway handles on the slow path
+            LOGGER.debug("Unable to read schema history, falling back to Flyway (reason={})", exception.getMessage());
+            return false;
+        }
+    }
+
+    private static BigInteger[] parseVersion(String version) {
+        return Arrays.stream(version.split("[._]"))
+                .filter(part -> !part.isEmpty())
+                .map(BigInteger::new)
+                .toArray(BigInteger[]::new);
+    }
+
+    private static int compareVersions(BigInteger[] left, BigInteger[] right) {
+        for (var index = 0; index < Math.max(left.length, right.length); index++) {
+            final var leftPart = index < left.length ? left[index] : BigInteger.ZERO;
+            final var rightPart = index < right.length ? right[index] : BigInteger.ZERO;
+
+            final var comparison = leftPart.compareTo(rightPart);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return 0;
+    }
+
+    // Same algorithm Flyway uses for SQL migrations: CRC32 of every line without line breaks, ignoring a leading BOM
+    private static int checksum(Resource resource) throws IOException {
+        final var crc32 = new CRC32();
+
+        try (final var reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            var line = reader.readLine();
+            if (line != null && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+
+            while (line != null) {
+                crc32.update(line.getBytes(StandardCharsets.UTF_8));
+                line = reader.readLine();
+            }
+        }
+
+        return (int) crc32.getValue();
+    }
+
+    private record Migration(BigInteger[] version, int checksum) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.internal;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+public final class TenantMigrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantMigrator.class);
+
+    private final FluentConfiguration flywayConfiguration;
+    private final TenantMigrations tenantMigrations;
+    private final TenantDataSources tenantDataSources;
+    private final TenantSchemas tenantSchemas;
+
+    public TenantMigrator(String migrationsLocation,
+                          boolean fastPath,
+                          TenantDataSources tenantDataSources,
+                          TenantSchemas tenantSchemas) {
+        this.flywayConfiguration = Flyway.configure().locations(migrationsLocation);
+        this.tenantMigrations = fastPath ? TenantMigrations.resolve(migrationsLocation) : null;
+        this.tenantDataSources = tenantDataSources;
+        this.tenantSchemas = tenantSchemas;
+    }
+
+    TenantMigration migrate(String tenant) {
+        final var startedAt = System.nanoTime();
+        final var placement = tenantSchemas.placement(tenant);
+        final var dataSource = tenantDataSources.get(placement.pool());
+
+        if (tenantMigrations != null && tenantMigrations.isUpToDate(dataSource, placement.schema())) {
+            final var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+            LOGGER.info("Tenant database already up to date (tenant={}, elapsed={}ms)", tenant, elapsed.toMillis());
+            return new TenantMigration(tenant, 0, elapsed);
+        }
+
+        LOGGER.info("Migrating tenant database (tenant={}, schema={})", tenant, placement.schema());
+        final var configuration = Flyway.configure()
+                .configuration(flywayConfiguration)
+                .dataSource(dataSource);
+
+        // Flyway creates the schema when missing and keeps its history table in there, apart from other tenants
+        if (placement.schema() != null) {
+            configuration.schemas(placement.schema());
+        }
+
+        final var flyway = configuration.load();
+
+        final var migrationResult = flyway.migrate();
+        final var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        LOGGER.info(
+                "Tenant database migrated (tenant={}, migrations={}, success={}, elapsed={}ms)",
+                tenant,
+                migrationResult.migrationsExecuted,
+                migrationResult.success,
+                elapsed.toMillis()
+        );
+
+        return new TenantMigration(tenant, migrationResult.migrationsExecuted, elapsed);
+    }
+}
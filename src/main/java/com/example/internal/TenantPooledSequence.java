@@ -0,0 +1,19 @@
+package com.example.internal;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@IdGeneratorType(TenantPooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TenantPooledSequence {
+
+    String sequenceName();
+
+    // Must match the INCREMENT BY of the sequence, every nextval reserves this many IDs
+    int allocationSize() default 50;
+}
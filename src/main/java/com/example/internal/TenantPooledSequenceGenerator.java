@@ -0,0 +1,75 @@
+package com.example.internal;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Hibernate keeps one generator per entity, shared by every tenant behind the routing DataSource.
+// Its pooled optimizer would hand out IDs reserved in one tenant's sequence to another tenant, so
+// each tenant gets its own block here, reserved from its own database.
+public final class TenantPooledSequenceGenerator implements IdentifierGenerator {
+
+    private static final String NO_TENANT = "";
+
+    private static final Map<String, Map<String, Block>> BLOCKS = new ConcurrentHashMap<>();
+
+    private final String sequenceName;
+    private final String nextValue;
+    private final int allocationSize;
+
+    public TenantPooledSequenceGenerator(TenantPooledSequence config) {
+        this.sequenceName = config.sequenceName();
+        this.nextValue = "SELECT nextval('" + config.sequenceName() + "')";
+        this.allocationSize = config.allocationSize();
+    }
+
+    // Blocks reserved from a tenant database that was removed must not be used if the tenant comes back
+    static void forget(String tenant) {
+        BLOCKS.remove(tenant);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        final var tenant = Tenant.get();
+        final var block = BLOCKS.computeIfAbsent(tenant == null ? NO_TENANT : tenant, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sequenceName, key -> new Block());
+
+        // A lock rather than synchronized, so a virtual thread waiting on nextval does not pin its carrier
+        block.lock.lock();
+        try {
+            if (block.next == block.limit) {
+                final var low = reserve(session);
+                block.next = low;
+                block.limit = low + allocationSize;
+            }
+
+            return block.next++;
+        } finally {
+            block.lock.unlock();
+        }
+    }
+
+    private long reserve(SharedSessionContractImplementor session) {
+        final var connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+
+        try (final var statement = connection.prepareStatement(nextValue);
+             final var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        } catch (SQLException exception) {
+            throw new HibernateException("Unable to reserve IDs from sequence " + sequenceName, exception);
+        }
+    }
+
+    private static final class Block {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.internal;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Error bodies of requests rejected for their tenant, shared by TenantInterceptor and TenantWebFilter
+final class TenantProblems {
+
+    // Error bodies are rendered once, only the tenant ID is spliced in per request
+    private final ProblemTemplate missingTenant;
+    private final ProblemTemplate unknownTenant;
+    private final ProblemTemplate tenantThrottled;
+    private final Map<TenantState, ProblemTemplate> tenantNotReady = new EnumMap<>(TenantState.class);
+
+    TenantProblems(ObjectMapper objectMapper) {
+        final var missingTenant = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        missingTenant.setTitle("Missing database tenant");
+        missingTenant.setDetail("Header X-Tenant-Id was not present in the request");
+        this.missingTenant = new ProblemTemplate(objectMapper, missingTenant);
+
+        final var unknownTenant = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        unknownTenant.setTitle("Unknown database tenant");
+        unknownTenant.setDetail("Value of header X-Tenant-Id does not match a known database tenant");
+        unknownTenant.setProperty("tenantId", ProblemTemplate.TENANT_ID);
+        this.unknownTenant = new ProblemTemplate(objectMapper, unknownTenant);
+
+        final var tenantThrottled = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
+        tenantThrottled.setTitle("Too many requests for database tenant");
+        tenantThrottled.setDetail("Tenant X-Tenant-Id has too many requests in flight, retry later");
+        tenantThrottled.setProperty("tenantId", ProblemTemplate.TENANT_ID);
+        this.tenantThrottled = new ProblemTemplate(objectMapper, tenantThrottled);
+
+        for (final var state : TenantState.values()) {
+            final var tenantNotReady = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+            tenantNotReady.setTitle("Database tenant not ready");
+            tenantNotReady.setDetail("Database of tenant X-Tenant-Id is not ready to serve requests yet");
+            tenantNotReady.setProperty("tenantId", ProblemTemplate.TENANT_ID);
+            tenantNotReady.setProperty("state", state);
+            this.tenantNotReady.put(state, new ProblemTemplate(objectMapper, tenantNotReady));
+        }
+    }
+
+    ProblemTemplate missingTenant() {
+        return missingTenant;
+    }
+
+    ProblemTemplate unknownTenant() {
+        return unknownTenant;
+    }
+
+    ProblemTemplate tenantThrottled() {
+        return tenantThrottled;
+    }
+
+    ProblemTemplate tenantNotReady(TenantState state) {
+        return tenantNotReady.get(state);
+    }
+
+    static final class ProblemTemplate {
+
+        private static final String TENANT_ID = "__X_TENANT_ID__";
+
+        private final int status;
+        private final byte[] prefix;
+        private final byte[] suffix;
+
+        private ProblemTemplate(ObjectMapper objectMapper, ProblemDetail problemDetail) {
+            this.status = problemDetail.getStatus();
+
+            final String rendered;
+            try {
+                rendered = objectMapper.writeValueAsString(problemDetail);
+            } catch (JsonProcessingException exception) {
+                throw new IllegalStateException("Unable to render problem detail " + problemDetail, exception);
+            }
+
+            final var placeholder = rendered.indexOf('"' + TENANT_ID + '"');
+            if (placeholder < 0) {
+                this.prefix = rendered.getBytes(StandardCharsets.UTF_8);
+                this.suffix = null;
+            } else {
+                this.prefix = rendered.substring(0, placeholder + 1).getBytes(StandardCharsets.UTF_8);
+                this.suffix = rendered.substring(placeholder + TENANT_ID.length() + 1).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        int getStatus() {
+            return status;
+        }
+
+        void write(HttpServletResponse response, String tenantId) throws IOException {
+            response.setStatus(status);
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+
+            final var outputStream = response.getOutputStream();
+            if (suffix == null) {
+                response.setContentLength(prefix.length);
+                outputStream.write(prefix);
+                return;
+            }
+
+            outputStream.write(prefix);
+            outputStream.write(JsonStringEncoder.getInstance().quoteAsUTF8(tenantId));
+            outputStream.write(suffix);
+        }
+
+        // Reactive responses take the body as a single buffer
+        byte[] render(String tenantId) {
+            if (suffix == null) {
+                return prefix;
+            }
+
+            final var quoted = JsonStringEncoder.getInstance().quoteAsUTF8(tenantId);
+            final var body = new byte[prefix.length + quoted.length + suffix.length];
+            System.arraycopy(prefix, 0, body, 0, prefix.length);
+            System.arraycopy(quoted, 0, body, prefix.length, quoted.length);
+            System.arraycopy(suffix, 0, body, prefix.length + quoted.length, suffix.length);
+            return body;
+        }
+    }
+}
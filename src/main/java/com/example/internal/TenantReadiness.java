@@ -0,0 +1,39 @@
+package com.example.internal;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class TenantReadiness {
+
+    private final Map<String, TenantState> states = new ConcurrentHashMap<>();
+
+    public TenantReadiness(Collection<String> tenants) {
+        tenants.forEach(tenant -> states.put(tenant, TenantState.PENDING));
+    }
+
+    public TenantState get(String tenant) {
+        return states.getOrDefault(tenant, TenantState.PENDING);
+    }
+
+    public boolean isReady(String tenant) {
+        return states.get(tenant) == TenantState.READY;
+    }
+
+    public void set(String tenant, TenantState state) {
+        states.put(tenant, state);
+    }
+
+    public boolean transition(String tenant, TenantState from, TenantState to) {
+        return states.replace(tenant, from, to);
+    }
+
+    public void remove(String tenant) {
+        states.remove(tenant);
+    }
+
+    public Map<String, TenantState> getStates() {
+        return new TreeMap<>(states);
+    }
+}
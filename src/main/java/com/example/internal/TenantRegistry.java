@@ -0,0 +1,142 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class TenantRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantRegistry.class);
+
+    private final TenantCatalog tenantCatalog;
+    private final Tenants tenants;
+    private final TenantReadiness tenantReadiness;
+    private final TenantRequests tenantRequests;
+    private final TenantDataSources tenantDataSources;
+    private final TenantMigrator tenantMigrator;
+    private final TenantWarmer tenantWarmer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration drainTimeout;
+    private final Set<String> allowedHosts;
+
+    public TenantRegistry(TenantCatalog tenantCatalog,
+                          Tenants tenants,
+                          TenantReadiness tenantReadiness,
+                          TenantRequests tenantRequests,
+                          TenantDataSources tenantDataSources,
+                          TenantMigrator tenantMigrator,
+                          TenantWarmer tenantWarmer,
+                          ApplicationEventPublisher eventPublisher,
+                          Duration drainTimeout,
+                          Collection<String> allowedHosts) {
+        this.tenantCatalog = tenantCatalog;
+        this.tenants = tenants;
+        this.tenantReadiness = tenantReadiness;
+        this.tenantRequests = tenantRequests;
+        this.tenantDataSources = tenantDataSources;
+        this.tenantMigrator = tenantMigrator;
+        this.tenantWarmer = tenantWarmer;
+        this.eventPublisher = eventPublisher;
+        this.drainTimeout = drainTimeout;
+        this.allowedHosts = allowedHosts.stream()
+                .map(host -> host.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    // Tenants registered here live in the memory of this instance only, they are neither persisted nor shared with
+    // other instances, so they are gone after a restart unless added to the tenant properties files as well
+    public boolean register(String tenantId, String url, String username, String password) {
+        final var allowedUrl = toAllowedUrl(url);
+
+        // Only reserving the tenant ID is locked, migrating a tenant does not hold up registering or removing others
+        synchronized (this) {
+            if (tenants.resolve(tenantId) != null) {
+                return false;
+            }
+
+            tenantCatalog.register(tenantId, Map.of("url", allowedUrl, "username", username, "password", password));
+
+            // Requests are routed as soon as the tenant is registered but rejected as not ready until migrated
+            tenantReadiness.set(tenantId, TenantState.MIGRATING);
+            tenants.register(tenantId);
+            LOGGER.info("Tenant registered (tenant={}, url={})", tenantId, allowedUrl);
+        }
+
+        try {
+            tenantMigrator.migrate(tenantId);
+        } catch (RuntimeException exception) {
+            LOGGER.error("Tenant migration failed, removing it again (tenant={})", tenantId, exception);
+            deregister(tenantId);
+            throw exception;
+        }
+
+        // Transitions rather than writes, so a tenant removed while it was migrating is not brought back
+        tenantReadiness.transition(tenantId, TenantState.MIGRATING, TenantState.WARMING);
+        tenantWarmer.warm(tenantId);
+        tenantReadiness.transition(tenantId, TenantState.WARMING, TenantState.READY);
+        return true;
+    }
+
+    public synchronized boolean deregister(String tenantId) {
+        final var tenant = tenants.resolve(tenantId);
+        if (tenant == null) {
+            return false;
+        }
+
+        // Requests arriving from now on are told the tenant is not ready, then that it is unknown
+        tenantReadiness.remove(tenant);
+        tenants.deregister(tenant);
+        LOGGER.info("Tenant deregistered, draining requests (tenant={}, inFlight={})",
+                tenant, tenantRequests.getInFlight(tenant));
+
+        try {
+            if (!tenantRequests.awaitIdle(tenant, drainTimeout)) {
+                LOGGER.warn("Tenant requests did not drain in time, closing pool anyway (tenant={}, inFlight={})",
+                        tenant, tenantRequests.getInFlight(tenant));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        tenantRequests.remove(tenant);
+        tenantDataSources.evict(tenant);
+        TenantPooledSequenceGenerator.forget(tenant);
+
+        tenantCatalog.remove(tenant);
+
+        // Anything kept per tenant outside this package is dropped too, in case the tenant comes back elsewhere
+        eventPublisher.publishEvent(new TenantRemovedEvent(tenant));
+        LOGGER.info("Tenant removed (tenant={})", tenant);
+        return true;
+    }
+
+    // Registering connects to the database right away, so only Postgres on an allowed host is accepted. Driver
+    // parameters are dropped, as some of them make the driver load classes or files named by the caller.
+    private String toAllowedUrl(String url) throws IllegalArgumentException {
+        final var prefix = "jdbc:postgresql://";
+        if (url == null || !url.startsWith(prefix)) {
+            throw new IllegalArgumentException("Tenant database URL must start with " + prefix);
+        }
+
+        final URI uri;
+        try {
+            uri = URI.create(url.substring("jdbc:".length()));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Tenant database URL is malformed", exception);
+        }
+
+        if (uri.getHost() == null || !allowedHosts.contains(uri.getHost().toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Tenant database host is not allowed (host=" + uri.getHost() + ")");
+        }
+
+        return prefix + uri.getHost() + (uri.getPort() < 0 ? "" : ":" + uri.getPort()) + uri.getRawPath();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Tracks whether the replica of a tenant may serve reads. Replicas are checked lazily, when a read for the tenant
+// finds the last check too old, so quiet tenants neither keep replica pools open nor cost any checks.
+public final class TenantReplicas {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantReplicas.class);
+
+    private static final String REPLICA_SUFFIX = ":replica";
+
+    // Zero when the replica has replayed everything it received, so an idle primary does not look like lag. That only
+    // holds while it is still receiving, a replica whose WAL receiver is gone or not streaming has no lag to tell, NULL.
+    // Without pg_read_all_stats the replica user only sees whether a WAL receiver runs, not whether it streams.
+    private static final String REPLICATION_LAG = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN NOT EXISTS (SELECT 1
+                                        FROM pg_stat_wal_receiver
+                                        WHERE status = 'streaming' OR status IS NULL) THEN NULL
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END AS LAG_MILLIS
+            """;
+
+    private final TenantCatalog tenantCatalog;
+    private final TenantDataSources tenantDataSources;
+    private final long checkIntervalNanos;
+    private final long maximumLagMillis;
+    private final Map<String, Replica> replicas = new ConcurrentHashMap<>();
+
+    public TenantReplicas(TenantCatalog tenantCatalog,
+                          TenantDataSources tenantDataSources,
+                          Duration checkInterval,
+                          Duration maximumLag) {
+        this.tenantCatalog = tenantCatalog;
+        this.tenantDataSources = tenantDataSources;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.maximumLagMillis = maximumLag.toMillis();
+    }
+
+    static String key(String tenant) {
+        return tenant + REPLICA_SUFFIX;
+    }
+
+    static String tenantOf(String key) {
+        return key.endsWith(REPLICA_SUFFIX) ? key.substring(0, key.length() - REPLICA_SUFFIX.length()) : null;
+    }
+
+    // Until the first check completes the replica is considered unavailable, reads go to the primary meanwhile
+    boolean isAvailable(String tenant) {
+        final var replica = replicas.computeIfAbsent(tenant, key ->
+                new Replica(tenantCatalog.tenant(key).containsProperty("replica.url")));
+        if (!replica.configured) {
+            return false;
+        }
+
+        if (System.nanoTime() - replica.checkedAt > checkIntervalNanos && replica.checking.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("tenant-replica-check").start(() -> check(tenant, replica));
+        }
+
+        return replica.available;
+    }
+
+    void markUnavailable(String tenant, SQLException exception) {
+        final var replica = replicas.get(tenant);
+        if (replica != null && replica.available) {
+            replica.available = false;
+            replica.checkedAt = System.nanoTime();
+            LOGGER.warn("Tenant replica unavailable, reading from primary (tenant={}, reason={})",
+                    tenant, exception.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onTenantRemoved(TenantRemovedEvent event) {
+        replicas.remove(event.tenant());
+        tenantDataSources.evict(key(event.tenant()));
+    }
+
+    private void check(String tenant, Replica replica) {
+        var available = false;
+        var lagMillis = -1L;
+
+        try (final var connection = tenantDataSources.getConnection(key(tenant));
+             final var statement = connection.prepareStatement(REPLICATION_LAG);
+             final var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            lagMillis = resultSet.getLong("LAG_MILLIS");
+            available = !resultSet.wasNull() && lagMillis <= maximumLagMillis;
+        } catch (SQLException exception) {
+            LOGGER.debug("Tenant replica check failed (tenant={}, reason={})", tenant, exception.getMessage());
+        } finally {
+            if (replica.available != available) {
+                LOGGER.info("Tenant replica availability changed (tenant={}, available={}, lag={}ms)",
+                        tenant, available, lagMillis);
+            }
+
+            replica.available = available;
+            replica.checkedAt = System.nanoTime();
+            replica.checking.set(false);
+        }
+    }
+
+    private static final class Replica {
+
+        private final boolean configured;
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private volatile boolean available;
+        private volatile long checkedAt;
+
+        private Replica(boolean configured) {
+            this.configured = configured;
+            this.checkedAt = System.nanoTime() - Long.MAX_VALUE / 2;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.internal;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public final class TenantRequests {
+
+    private static final Limits UNLIMITED = new Limits(Integer.MAX_VALUE, 1);
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong activeWeight = new AtomicLong();
+    private final int capacity;
+    private final Function<String, Limits> limits;
+
+    public TenantRequests() {
+        this(Integer.MAX_VALUE, tenant -> UNLIMITED);
+    }
+
+    public TenantRequests(int capacity, Function<String, Limits> limits) {
+        this.capacity = capacity;
+        this.limits = limits;
+    }
+
+    // Admits the request unless the tenant is at its own limit, or the service is at capacity and the tenant is
+    // already over its weighted share of it. Below capacity any tenant may burst up to its own limit.
+    // The bulkhead returned is the one to release, null when the request is not admitted.
+    Bulkhead tryAcquire(String tenant) {
+        final var bulkhead = bulkhead(tenant);
+
+        while (true) {
+            final var current = bulkhead.inFlight.get();
+            if (current >= bulkhead.limit) {
+                return null;
+            }
+
+            if (total.get() >= capacity && current >= fairShare(bulkhead, current)) {
+                return null;
+            }
+
+            if (bulkhead.inFlight.compareAndSet(current, current + 1)) {
+                admitted(bulkhead, current);
+                return bulkhead;
+            }
+        }
+    }
+
+    // Counts the request without admission control, for work that must not be turned away
+    Bulkhead acquire(String tenant) {
+        final var bulkhead = bulkhead(tenant);
+        admitted(bulkhead, bulkhead.inFlight.getAndIncrement());
+        return bulkhead;
+    }
+
+    // Released against the bulkhead the request was admitted by, never one looked up by name, which may belong to
+    // the tenant registered again since. A removed bulkhead is at zero, its requests were released by remove.
+    void release(Bulkhead bulkhead) {
+        if (bulkhead == null) {
+            return;
+        }
+
+        while (true) {
+            final var current = bulkhead.inFlight.get();
+            if (current == 0) {
+                return;
+            }
+
+            if (bulkhead.inFlight.compareAndSet(current, current - 1)) {
+                if (current == 1) {
+                    activeWeight.addAndGet(-bulkhead.weight);
+                }
+                total.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    public int getInFlight(String tenant) {
+        final var bulkhead = bulkheads.get(tenant);
+        return bulkhead == null ? 0 : bulkhead.inFlight.get();
+    }
+
+    boolean awaitIdle(String tenant, Duration timeout) throws InterruptedException {
+        final var deadline = System.nanoTime() + timeout.toNanos();
+
+        while (getInFlight(tenant) > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+
+    void remove(String tenant) {
+        final var bulkhead = bulkheads.remove(tenant);
+        if (bulkhead == null) {
+            return;
+        }
+
+        // Requests that did not drain in time are released from the totals here, their own release finds zero
+        final var remaining = bulkhead.inFlight.getAndSet(0);
+        if (remaining > 0) {
+            activeWeight.addAndGet(-bulkhead.weight);
+            total.addAndGet(-remaining);
+        }
+    }
+
+    private Bulkhead bulkhead(String tenant) {
+        return bulkheads.computeIfAbsent(tenant, key -> new Bulkhead(limits.apply(key)));
+    }
+
+    private void admitted(Bulkhead bulkhead, int previous) {
+        if (previous == 0) {
+            activeWeight.addAndGet(bulkhead.weight);
+        }
+        total.incrementAndGet();
+    }
+
+    private int fairShare(Bulkhead bulkhead, int current) {
+        // A tenant without requests in flight is not part of the active weight yet, but would be once admitted
+        final var weights = activeWeight.get() + (current == 0 ? bulkhead.weight : 0);
+        return (int) Math.max(1, (long) capacity * bulkhead.weight / Math.max(weights, bulkhead.weight));
+    }
+
+    public record Limits(int maxConcurrentRequests, int weight) {
+
+        public Limits {
+            if (maxConcurrentRequests < 1) {
+                throw new IllegalArgumentException("Maximum concurrent requests must be at least 1");
+            }
+            if (weight < 1) {
+                throw new IllegalArgumentException("Weight must be at least 1");
+            }
+        }
+    }
+
+    static final class Bulkhead {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final int limit;
+        private final int weight;
+
+        private Bulkhead(Limits limits) {
+            this.limit = limits.maxConcurrentRequests();
+            this.weight = limits.weight();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.internal;
+
+import org.springframework.context.event.EventListener;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Small tenants may live as a schema inside a shared database instead of having a database of their own. Every
+// tenant of a shared database is served by the same pool, with the schema switched whenever a connection is taken.
+public final class TenantSchemas {
+
+    private static final String SHARED_PREFIX = "shared:";
+
+    private final TenantCatalog tenantCatalog;
+    private final TenantDataSources tenantDataSources;
+    private final Map<String, Placement> placements = new ConcurrentHashMap<>();
+
+    public TenantSchemas(TenantCatalog tenantCatalog, TenantDataSources tenantDataSources) {
+        this.tenantCatalog = tenantCatalog;
+        this.tenantDataSources = tenantDataSources;
+    }
+
+    static String sharedDatabaseOf(String key) {
+        return key.startsWith(SHARED_PREFIX) ? key.substring(SHARED_PREFIX.length()) : null;
+    }
+
+    Placement placement(String tenant) {
+        return placements.computeIfAbsent(tenant, key -> {
+            final var tenant = tenantCatalog.tenant(key);
+            final var schema = tenant.getProperty("schema");
+            if (schema == null) {
+                return new Placement(key, null);
+            }
+
+            final var sharedDatabase = tenant.getRequiredProperty("shared-database");
+            return new Placement(SHARED_PREFIX + sharedDatabase, schema);
+        });
+    }
+
+    Connection getConnection(String tenant) throws SQLException {
+        return switchSchema(tenant, tenantDataSources.getConnection(placement(tenant).pool()));
+    }
+
+    Connection switchSchema(String tenant, Connection connection) throws SQLException {
+        final var schema = placement(tenant).schema();
+        if (schema == null) {
+            return connection;
+        }
+
+        try {
+            connection.setSchema(schema);
+            return connection;
+        } catch (SQLException exception) {
+            connection.close();
+            throw exception;
+        }
+    }
+
+    @EventListener
+    public void onTenantRemoved(TenantRemovedEvent event) {
+        placements.remove(event.tenant());
+    }
+
+    // The pool is the tenant itself for a dedicated database, schema is null then
+    record Placement(String pool, String schema) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.internal;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+final class TenantSelector extends AbstractRoutingDataSource {
+
+    private final TenantDataSources tenantDataSources;
+    private final TenantReplicas tenantReplicas;
+    private final TenantSchemas tenantSchemas;
+
+    TenantSelector(TenantDataSources tenantDataSources, TenantReplicas tenantReplicas, TenantSchemas tenantSchemas) {
+        this.tenantDataSources = tenantDataSources;
+        this.tenantReplicas = tenantReplicas;
+        this.tenantSchemas = tenantSchemas;
+        setTargetDataSources(Map.of());
+    }
+
+    // Behind a LazyConnectionDataSourceProxy this runs at the first statement, once the transaction is marked read-only
+    @Override
+    public Connection getConnection() throws SQLException {
+        final var tenant = currentTenant();
+
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && tenantReplicas.isAvailable(tenant)) {
+            try {
+                return tenantSchemas.switchSchema(tenant, tenantDataSources.getConnection(TenantReplicas.key(tenant)));
+            } catch (SQLException exception) {
+                tenantReplicas.markUnavailable(tenant, exception);
+            }
+        }
+
+        // Tenants living as a schema share the pool of their database, so the schema is switched on every checkout
+        return tenantSchemas.getConnection(tenant);
+    }
+
+    // Callers probing for a pool outside of any tenant, like metrics and health binders, find none instead of failing
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || (Tenant.get() != null && super.isWrapperFor(iface));
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this) || Tenant.get() != null) {
+            return super.unwrap(iface);
+        }
+
+        throw new SQLException("DataSource of no tenant can be unwrapped as [" + iface.getName() + "]");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Tenant.get();
+    }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        return tenantDataSources.get(tenantSchemas.placement(currentTenant()).pool());
+    }
+
+    private String currentTenant() {
+        final var tenant = (String) determineCurrentLookupKey();
+        if (tenant == null) {
+            throw new IllegalStateException("Cannot determine target DataSource for lookup key [null]");
+        }
+
+        return tenant;
+    }
+}
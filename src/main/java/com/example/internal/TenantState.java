@@ -0,0 +1,9 @@
+package com.example.internal;
+
+public enum TenantState {
+    PENDING,
+    MIGRATING,
+    WARMING,
+    READY,
+    FAILED
+}
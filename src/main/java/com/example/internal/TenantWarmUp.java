@@ -0,0 +1,7 @@
+package com.example.internal;
+
+// Calls of a hot request path, made by TenantWarmer with the tenant bound, in a transaction that is rolled back
+public interface TenantWarmUp {
+
+    void run();
+}
@@ -0,0 +1,99 @@
+package com.example.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Runs the warm-ups of a freshly migrated tenant on several of its connections ahead of its first requests, so
+// connecting, authenticating and preparing statements is not paid for by the first requests after a deploy
+public final class TenantWarmer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantWarmer.class);
+
+    // Bounds how long a connection is held for the others, in case the pool is smaller than the warm-up
+    private static final Duration HOLD_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<TenantWarmUp> warmUps;
+    private final int connections;
+    private final int executions;
+
+    // Resolved on every warm-up, the repositories behind the warm-ups are built after the tenant beans
+    public TenantWarmer(ObjectProvider<PlatformTransactionManager> transactionManager,
+                        ObjectProvider<TenantWarmUp> warmUps,
+                        int connections,
+                        int executions) {
+        this.transactionManager = transactionManager;
+        this.warmUps = warmUps;
+        this.connections = connections;
+        this.executions = executions;
+    }
+
+    // Warming up is best effort, a tenant that fails to warm up still serves requests, only slower at first
+    void warm(String tenant) {
+        final var steps = warmUps.orderedStream().toList();
+        final var manager = transactionManager.getIfUnique();
+        if (connections < 1 || steps.isEmpty() || manager == null) {
+            return;
+        }
+
+        final var startedAt = System.nanoTime();
+        final var transactionTemplate = new TransactionTemplate(manager);
+        final var warmed = new CountDownLatch(connections);
+        final var executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tenant-warm-up-", 1).factory());
+
+        try {
+            final var warmings = executor.invokeAll(Collections.nCopies(connections, (Callable<Void>) () -> {
+                Tenant.run(tenant, () -> transactionTemplate.executeWithoutResult(status -> {
+                    // Rolled back, so warming up the insert path leaves nothing behind
+                    status.setRollbackOnly();
+                    try {
+                        // The driver only prepares a statement on the server after a few executions of it
+                        for (var execution = 0; execution < executions; execution++) {
+                            steps.forEach(TenantWarmUp::run);
+                        }
+                    } finally {
+                        warmed.countDown();
+                    }
+
+                    // Every connection is held until all have warmed up, otherwise the pool would hand the same one
+                    // out again. Once returned they stay open for the idle timeout of the pool, or while in use.
+                    hold(warmed);
+                }));
+                return null;
+            }));
+
+            for (final var warming : warmings) {
+                warming.get();
+            }
+
+            LOGGER.info("Tenant warmed up (tenant={}, connections={}, warmUps={}, elapsed={}ms)",
+                    tenant, connections, steps.size(), Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+        } catch (ExecutionException exception) {
+            LOGGER.warn("Tenant warm-up failed (tenant={}, connections={}, reason={})",
+                    tenant, connections, exception.getCause().toString());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void hold(CountDownLatch warmed) {
+        try {
+            warmed.await(HOLD_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+// Reactive counterpart of TenantInterceptor, rejecting requests the same way. The tenant of an accepted request is
+// put in the Reactor context of the rest of the chain rather than bound to a thread.
+public final class TenantWebFilter implements WebFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantWebFilter.class);
+
+    private static final String X_TENANT_ID = "X-Tenant-Id";
+
+    private final Tenants tenants;
+    private final TenantReadiness tenantReadiness;
+    private final TenantRequests tenantRequests;
+    private final TenantMetrics tenantMetrics;
+    private final String retryAfterSeconds;
+    private final TenantProblems tenantProblems;
+    private final List<PathPattern> excludedPaths;
+
+    public TenantWebFilter(ObjectMapper objectMapper,
+                           Tenants tenants,
+                           TenantReadiness tenantReadiness,
+                           TenantRequests tenantRequests,
+                           TenantMetrics tenantMetrics,
+                           Duration retryAfter,
+                           List<String> excludedPaths) {
+        this.tenants = tenants;
+        this.tenantReadiness = tenantReadiness;
+        this.tenantRequests = tenantRequests;
+        this.tenantMetrics = tenantMetrics;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.tenantProblems = new TenantProblems(objectMapper);
+        this.excludedPaths = excludedPaths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        final var request = exchange.getRequest();
+        final var path = request.getPath().pathWithinApplication();
+        for (final var excludedPath : excludedPaths) {
+            if (excludedPath.matches(path)) {
+                return chain.filter(exchange);
+            }
+        }
+
+        final var xTenantId = request.getHeaders().getFirst(X_TENANT_ID);
+        if (xTenantId == null) {
+            tenantMetrics.recordRejection(null, "missing");
+            return respond(exchange, tenantProblems.missingTenant(), null);
+        }
+
+        final var tenantId = tenants.resolve(xTenantId);
+        if (tenantId == null) {
+            tenantMetrics.recordRejection(null, "unknown");
+            return respond(exchange, tenantProblems.unknownTenant(), xTenantId);
+        }
+
+        // Counted before checking readiness, so a tenant being removed either sees this request or rejects it
+        final var bulkhead = tenantRequests.tryAcquire(tenantId);
+        if (bulkhead == null) {
+            tenantMetrics.recordRejection(tenantId, "throttled");
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return respond(exchange, tenantProblems.tenantThrottled(), tenantId);
+        }
+        if (!tenantReadiness.isReady(tenantId)) {
+            tenantRequests.release(bulkhead);
+            tenantMetrics.recordRejection(tenantId, "not_ready");
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return respond(exchange, tenantProblems.tenantNotReady(tenantReadiness.get(tenantId)), tenantId);
+        }
+
+        LOGGER.debug("Handling request for tenant {}", tenantId);
+        final var startedAt = System.nanoTime();
+
+        // Released on completion, error and cancellation alike, like afterCompletion of the interceptor
+        return chain.filter(exchange)
+                .contextWrite(ReactiveTenant.with(tenantId))
+                .doFinally(signal -> {
+                    final var status = exchange.getResponse().getStatusCode();
+                    tenantMetrics.recordRequest(tenantId, status == null ? 200 : status.value(), System.nanoTime() - startedAt);
+                    tenantRequests.release(bulkhead);
+                });
+    }
+
+    private Mono<Void> respond(ServerWebExchange exchange,
+                               TenantProblems.ProblemTemplate problemTemplate,
+                               String tenantId) {
+        final var response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(problemTemplate.getStatus()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(problemTemplate.render(tenantId))));
+    }
+}
@@ -1,13 +1,54 @@
 package com.example.internal;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
-@Data
-@AllArgsConstructor
 public final class Tenants {
 
-    private Set<String> names;
+    // Maps a tenant ID to its interned instance, which is used as routing key everywhere else.
+    // Replaced as a whole when tenants are added or removed, so lookups never lock.
+    private volatile Map<String, String> index;
+
+    public Tenants(Collection<String> names) {
+        final var index = new HashMap<String, String>();
+        for (final var name : names) {
+            final var tenantId = name.intern();
+            index.put(tenantId, tenantId);
+        }
+
+        this.index = Map.copyOf(index);
+    }
+
+    public String resolve(String tenantId) {
+        return tenantId == null ? null : index.get(tenantId);
+    }
+
+    public Set<String> getNames() {
+        return index.keySet();
+    }
+
+    synchronized boolean register(String tenantId) {
+        if (index.containsKey(tenantId)) {
+            return false;
+        }
+
+        final var index = new HashMap<>(this.index);
+        final var internedTenantId = tenantId.intern();
+        index.put(internedTenantId, internedTenantId);
+        this.index = Map.copyOf(index);
+        return true;
+    }
+
+    synchronized boolean deregister(String tenantId) {
+        if (!index.containsKey(tenantId)) {
+            return false;
+        }
+
+        final var index = new HashMap<>(this.index);
+        index.remove(tenantId);
+        this.index = Map.copyOf(index);
+        return true;
+    }
 }
@@ -1,59 +1,185 @@
 package com.example.internal;
 
-import com.zaxxer.hikari.HikariDataSource;
-import org.springframework.beans.factory.annotation.Qualifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
+@ImportRuntimeHints(TenantsRuntimeHints.class)
 public class TenantsConfiguration {
 
     @Bean
-    @SuppressWarnings("unchecked")
-    Tenants tenants(Environment environment) {
-        return new Tenants(environment.getRequiredProperty("datasource.tenants.names", Set.class));
+    TenantCatalog tenantCatalog(ConfigurableEnvironment environment) {
+        return TenantCatalog.load(environment);
     }
 
     @Bean
-    DataSource dataSource(@Qualifier("targetDataSources") Map<Object, Object> targetDataSources) {
-        final var tenantSelector = new TenantSelector();
+    Tenants tenants(TenantCatalog tenantCatalog) {
+        return new Tenants(tenantCatalog.getNames());
+    }
 
-        tenantSelector.setTargetDataSources(targetDataSources);
-        tenantSelector.afterPropertiesSet();
+    @Bean
+    TenantReadiness tenantReadiness(Tenants tenants) {
+        return new TenantReadiness(tenants.getNames());
+    }
 
-        return tenantSelector;
+    @Bean
+    TenantRequests tenantRequests(Environment environment, TenantCatalog tenantCatalog) {
+        final var maxConcurrentRequests =
+                environment.getProperty("datasource.tenants.requests.max-concurrent", Integer.class, 50);
+
+        // Read when a tenant gets its first request, tenant properties files may override the defaults
+        return new TenantRequests(
+                environment.getProperty("datasource.tenants.requests.capacity", Integer.class, 200),
+                tenant -> new TenantRequests.Limits(
+                        tenantCatalog.tenant(tenant).getProperty(
+                                "max-concurrent-requests", Integer.class, maxConcurrentRequests
+                        ),
+                        tenantCatalog.tenant(tenant).getProperty("weight", Integer.class, 1)
+                )
+        );
     }
 
-    @Bean("targetDataSources")
-    Map<Object, Object> targetDataSources(Tenants tenants, Environment environment) {
-        final var dataSources = new HashMap<>();
+    @Bean
+    TenantMetrics tenantMetrics(Environment environment, MeterRegistry meterRegistry) {
+        return new TenantMetrics(
+                meterRegistry,
+                environment.getProperty("datasource.tenants.metrics.maximum-tagged", Integer.class, 100)
+        );
+    }
 
-        for (final var tenant : tenants.getNames()) {
-            final var dataSource = new HikariDataSource();
+    @Bean
+    TenantFanOut tenantFanOut(Environment environment,
+                              Tenants tenants,
+                              TenantReadiness tenantReadiness,
+                              TenantRequests tenantRequests) {
+        return new TenantFanOut(
+                tenants,
+                tenantReadiness,
+                tenantRequests,
+                environment.getProperty("datasource.tenants.fan-out.concurrency", Integer.class, 16),
+                environment.getProperty("datasource.tenants.fan-out.timeout", Duration.class, Duration.ofSeconds(5))
+        );
+    }
 
-            dataSource.setJdbcUrl(environment.getRequiredProperty("datasource.tenant." + tenant + ".url"));
-            dataSource.setUsername(environment.getRequiredProperty("datasource.tenant." + tenant + ".username"));
-            dataSource.setPassword(environment.getRequiredProperty("datasource.tenant." + tenant + ".password"));
-            dataSource.setDriverClassName(environment.getRequiredProperty("spring.datasource.driver-class-name"));
+    @Bean
+    TenantSchemas tenantSchemas(TenantCatalog tenantCatalog, TenantDataSources tenantDataSources) {
+        return new TenantSchemas(tenantCatalog, tenantDataSources);
+    }
 
-            dataSources.put(tenant, dataSource);
-        }
+    @Bean
+    TenantMigrator tenantMigrator(Environment environment,
+                                  TenantDataSources tenantDataSources,
+                                  TenantSchemas tenantSchemas) {
+        return new TenantMigrator(
+                environment.getRequiredProperty("spring.flyway.locations"),
+                environment.getProperty("datasource.tenants.migration.fast-path", Boolean.class, true),
+                tenantDataSources,
+                tenantSchemas
+        );
+    }
 
-        return dataSources;
+    @Bean
+    TenantWarmer tenantWarmer(Environment environment,
+                              ObjectProvider<PlatformTransactionManager> transactionManager,
+                              ObjectProvider<TenantWarmUp> warmUps) {
+        return new TenantWarmer(
+                transactionManager,
+                warmUps,
+                environment.getProperty("datasource.tenants.warm-up.connections", Integer.class, 0),
+                environment.getProperty("datasource.tenants.warm-up.executions", Integer.class, 5)
+        );
     }
 
-    private static final class TenantSelector extends AbstractRoutingDataSource {
+    @Bean
+    TenantRegistry tenantRegistry(Environment environment,
+                                  TenantCatalog tenantCatalog,
+                                  Tenants tenants,
+                                  TenantReadiness tenantReadiness,
+                                  TenantRequests tenantRequests,
+                                  TenantDataSources tenantDataSources,
+                                  TenantMigrator tenantMigrator,
+                                  TenantWarmer tenantWarmer,
+                                  ApplicationEventPublisher eventPublisher) {
+        return new TenantRegistry(
+                tenantCatalog,
+                tenants,
+                tenantReadiness,
+                tenantRequests,
+                tenantDataSources,
+                tenantMigrator,
+                tenantWarmer,
+                eventPublisher,
+                environment.getProperty("datasource.tenants.drain-timeout", Duration.class, Duration.ofSeconds(30)),
+                List.of(environment.getProperty(
+                        "datasource.tenants.registration.allowed-hosts", String[].class, new String[0]
+                ))
+        );
+    }
+
+    @Bean
+    TenantReplicas tenantReplicas(Environment environment,
+                                  TenantCatalog tenantCatalog,
+                                  TenantDataSources tenantDataSources) {
+        return new TenantReplicas(
+                tenantCatalog,
+                tenantDataSources,
+                environment.getProperty("datasource.tenants.replica.check-interval", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("datasource.tenants.replica.maximum-lag", Duration.class, Duration.ofSeconds(10))
+        );
+    }
+
+    @Bean
+    DataSource dataSource(TenantDataSources tenantDataSources,
+                          TenantReplicas tenantReplicas,
+                          TenantSchemas tenantSchemas) {
+        final var tenantSelector = new TenantSelector(tenantDataSources, tenantReplicas, tenantSchemas);
+        tenantSelector.afterPropertiesSet();
+
+        // Delays checkout until the first statement, when TenantSelector can tell whether the transaction is read-only.
+        // Defaults are given up front, as no tenant is bound to look them up from a connection at startup.
+        final var dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(tenantSelector);
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+
+        return dataSource;
+    }
+
+    @Bean
+    TenantConnectionBudget tenantConnectionBudget(Environment environment) {
+        return new TenantConnectionBudget(
+                environment.getProperty("datasource.tenants.pool.connection-budget", Integer.class, 100),
+                environment.getProperty("datasource.tenants.pool.maximum-size", Integer.class, 10),
+                environment.getProperty("datasource.tenants.pool.rebalance-interval", Duration.class, Duration.ofSeconds(5))
+        );
+    }
+
+    @Bean
+    TenantDataSources tenantDataSources(Environment environment,
+                                        TenantCatalog tenantCatalog,
+                                        TenantConnectionBudget tenantConnectionBudget,
+                                        TenantMetrics tenantMetrics) {
+        final var tenantDataSourceFactory =
+                new TenantDataSourceFactory(environment, tenantCatalog, tenantConnectionBudget, tenantMetrics);
 
-        @Override
-        protected Object determineCurrentLookupKey() {
-            return Tenant.get();
-        }
+        return new TenantDataSources(
+                tenantDataSourceFactory::create,
+                environment.getProperty("datasource.tenants.pool.maximum-open", Integer.class, 100),
+                environment.getProperty("datasource.tenants.pool.idle-ttl", Duration.class, Duration.ofMinutes(10))
+        );
     }
 }
@@ -1,14 +1,25 @@
 package com.example.internal;
 
-import org.flywaydb.core.Flyway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.event.ContextRefreshedEvent;
 
-import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Configuration
 public class TenantsDatabaseInitializer implements ApplicationListener<ContextRefreshedEvent> {
@@ -16,30 +27,171 @@ public class TenantsDatabaseInitializer implements ApplicationListener<ContextRe
     private static final Logger LOGGER = LoggerFactory.getLogger(TenantsDatabaseInitializer.class);
 
     @Override
-    @SuppressWarnings("unchecked")
     public void onApplicationEvent(ContextRefreshedEvent event) {
-        LOGGER.info("Initializing tenant databases");
-
         final var context = event.getApplicationContext();
+        final var background = context.getEnvironment()
+                .getProperty("datasource.tenants.migration.background", Boolean.class, false);
+
+        if (!background) {
+            initialize(context, false);
+            return;
+        }
+
+        // Requests for a tenant are rejected by TenantInterceptor until its database is READY
+        Thread.ofPlatform().name("tenant-migrations").daemon().start(() -> {
+            try {
+                initialize(context, true);
+            } catch (RuntimeException exception) {
+                LOGGER.error("Tenant databases initialized in background with failures", exception);
+            }
+        });
+    }
+
+    private void initialize(ApplicationContext context, boolean background) {
         final var environment = context.getEnvironment();
 
-        final var migrationsLocation = environment.getRequiredProperty("spring.flyway.locations");
-        final var dataSources = (Map<Object, Object>) context.getBean("targetDataSources", Map.class);
+        final var concurrency = environment.getProperty("datasource.tenants.migration.concurrency", Integer.class, 1);
+        final var timeout = environment.getProperty("datasource.tenants.migration.timeout", Duration.class, Duration.ofMinutes(5));
+        final var tenants = context.getBean(Tenants.class);
+        final var tenantMigrator = context.getBean(TenantMigrator.class);
+        final var tenantReadiness = context.getBean(TenantReadiness.class);
+        final var tenantWarmer = context.getBean(TenantWarmer.class);
+
+        // In background the tenants already migrated keep serving, those still migrating or waiting are FAILED
+        final var failFast = environment.getProperty("datasource.tenants.migration.fail-fast", Boolean.class, true);
+
+        LOGGER.info("Initializing tenant databases (tenants={}, concurrency={}, timeout={}, failFast={}, background={})",
+                tenants.getNames().size(), concurrency, timeout, failFast, background);
+
+        final var executor = Executors.newFixedThreadPool(
+                Math.max(1, concurrency),
+                Thread.ofVirtual().name("tenant-migration-", 1).factory()
+        );
+        final var watchdog = Executors.newSingleThreadScheduledExecutor(runnable ->
+                Thread.ofPlatform().name("tenant-migration-watchdog").daemon().unstarted(runnable));
+
+        final var startedAt = System.nanoTime();
+        final var migrations = new LinkedHashMap<String, CompletableFuture<TenantMigration>>();
+        final var firstFailure = new CompletableFuture<Void>();
+
+        try {
+            for (final var tenant : tenants.getNames()) {
+                final var migration = new CompletableFuture<TenantMigration>();
+                migrations.put(tenant, migration);
+
+                migration.whenComplete((result, exception) -> {
+                    // TenantRegistry may have removed the tenant meanwhile, it must not come back as READY or FAILED
+                    if (tenants.resolve(tenant) != null) {
+                        tenantReadiness.set(tenant, exception == null ? TenantState.READY : TenantState.FAILED);
+                    }
+                    if (exception != null && failFast) {
+                        firstFailure.completeExceptionally(exception);
+                    }
+                });
+
+                executor.execute(() -> {
+                    if (migration.isDone()) {
+                        return;
+                    }
 
-        dataSources.forEach((tenant, dataSource) -> {
-            LOGGER.info("Migrating tenant database (tenant={})", tenant);
+                    tenantReadiness.transition(tenant, TenantState.PENDING, TenantState.MIGRATING);
 
-            final var flyway = Flyway.configure()
-                    .locations(migrationsLocation)
-                    .dataSource(((DataSource) dataSource))
-                    .load();
+                    // Interrupting stops Flyway at its next statement, closing the connection it held and freeing
+                    // this thread for the next tenant. The lock keeps the interrupt from reaching that next tenant.
+                    final var worker = Thread.currentThread();
+                    final var interrupting = new ReentrantLock();
+                    final var deadline = watchdog.schedule(
+                            () -> {
+                                interrupting.lock();
+                                try {
+                                    if (migration.completeExceptionally(new TimeoutException(
+                                            "Migration of tenant '" + tenant + "' did not finish within " + timeout))) {
+                                        worker.interrupt();
+                                    }
+                                } finally {
+                                    interrupting.unlock();
+                                }
+                            },
+                            timeout.toMillis(),
+                            TimeUnit.MILLISECONDS
+                    );
 
-            final var migrationResult = flyway.migrate();
-            LOGGER.info(
-                    "Tenant database migrated (migrations={}, success={})",
-                    migrationResult.migrationsExecuted,
-                    migrationResult.success
-            );
+                    var migrated = false;
+                    try {
+                        final var result = tenantMigrator.migrate(tenant);
+
+                        // Reported READY only once warm, the watchdog deadline covers both steps
+                        tenantReadiness.transition(tenant, TenantState.MIGRATING, TenantState.WARMING);
+                        tenantWarmer.warm(tenant);
+                        migrated = true;
+                        migration.complete(result);
+                    } catch (Throwable exception) {
+                        migration.completeExceptionally(exception);
+                    } finally {
+                        deadline.cancel(false);
+
+                        // The migration is done by now, so a watchdog firing after this finds nothing to interrupt
+                        interrupting.lock();
+                        try {
+                            Thread.interrupted();
+
+                            // Flyway may finish before noticing the interrupt, the database is then as good as any
+                            if (migrated && migration.state() == Future.State.FAILED
+                                    && migration.exceptionNow() instanceof TimeoutException
+                                    && tenantReadiness.transition(tenant, TenantState.FAILED, TenantState.READY)) {
+                                LOGGER.info("Tenant migration finished after its timeout (tenant={})", tenant);
+                            }
+                        } finally {
+                            interrupting.unlock();
+                        }
+                    }
+                });
+            }
+
+            final var allMigrations = CompletableFuture.allOf(migrations.values().toArray(CompletableFuture[]::new));
+            CompletableFuture.anyOf(allMigrations, firstFailure)
+                    .exceptionally(exception -> null)
+                    .join();
+        } finally {
+            executor.shutdownNow();
+            watchdog.shutdownNow();
+        }
+
+        summarize(migrations, Duration.ofNanos(System.nanoTime() - startedAt));
+    }
+
+    private void summarize(Map<String, CompletableFuture<TenantMigration>> migrations, Duration elapsed) {
+        final var succeeded = new ArrayList<TenantMigration>();
+        final var failed = new LinkedHashMap<String, Throwable>();
+
+        migrations.forEach((tenant, migration) -> {
+            // Migrations that never started because another tenant failed first are reported as cancelled
+            migration.cancel(false);
+
+            try {
+                succeeded.add(migration.join());
+            } catch (CancellationException exception) {
+                failed.put(tenant, exception);
+            } catch (CompletionException exception) {
+                failed.put(tenant, exception.getCause());
+            }
         });
+
+        succeeded.sort(Comparator.comparing(TenantMigration::elapsed).reversed());
+        for (final var migration : succeeded) {
+            LOGGER.info("Tenant migration timing (tenant={}, migrations={}, elapsed={}ms)",
+                    migration.tenant(), migration.migrationsExecuted(), migration.elapsed().toMillis());
+        }
+        failed.forEach((tenant, exception) ->
+                LOGGER.error("Tenant migration failed (tenant={}, reason={})", tenant, exception.toString()));
+
+        LOGGER.info("Tenant databases initialized (tenants={}, succeeded={}, failed={}, elapsed={}ms)",
+                migrations.size(), succeeded.size(), failed.size(), elapsed.toMillis());
+
+        if (!failed.isEmpty()) {
+            final var exception = new IllegalStateException("Failed to migrate tenant databases " + failed.keySet());
+            failed.values().forEach(exception::addSuppressed);
+            throw exception;
+        }
     }
 }
@@ -0,0 +1,15 @@
+package com.example.internal;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Tenant properties files and migrations are read from the classpath at runtime, so AOT has to keep them around
+class TenantsRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources()
+                .registerPattern("db/tenant/*.properties")
+                .registerPattern("db/migration/*.sql");
+    }
+}
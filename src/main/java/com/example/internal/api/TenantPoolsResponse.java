@@ -0,0 +1,17 @@
+package com.example.internal.api;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public final class TenantPoolsResponse {
+
+    private int budget;
+
+    private int allocated;
+
+    private Map<String, Integer> allocation;
+}
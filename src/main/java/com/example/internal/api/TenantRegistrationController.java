@@ -0,0 +1,89 @@
+package com.example.internal.api;
+
+import com.example.internal.TenantRegistry;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// Served on the application port without authentication, so it only exists once explicitly enabled. Tenants added
+// here are kept by this instance alone and until it restarts, see TenantRegistry.
+@RestController
+@RequestMapping("/admin/tenants")
+@ConditionalOnProperty(name = "datasource.tenants.registration.enabled", havingValue = "true")
+public class TenantRegistrationController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantRegistrationController.class);
+
+    private final TenantRegistry tenantRegistry;
+
+    public TenantRegistrationController(TenantRegistry tenantRegistry) {
+        this.tenantRegistry = tenantRegistry;
+    }
+
+    @PutMapping("/{tenantId}")
+    public ResponseEntity<Void> registerOne(@PathVariable @Pattern(regexp = "[A-Za-z0-9_-]+") String tenantId,
+                                            @Valid @RequestBody TenantRequest tenantRequest) {
+        LOGGER.info("Registering new tenant (tenant={}, request={})", tenantId, tenantRequest);
+
+        final boolean registered;
+        try {
+            registered = tenantRegistry.register(
+                    tenantId,
+                    tenantRequest.getUrl(),
+                    tenantRequest.getUsername(),
+                    tenantRequest.getPassword()
+            );
+        } catch (IllegalArgumentException exception) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+            problemDetail.setTitle("Tenant database not allowed");
+            problemDetail.setDetail(exception.getMessage());
+            problemDetail.setProperty("tenantId", tenantId);
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, problemDetail, exception);
+        } catch (RuntimeException exception) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+            problemDetail.setTitle("Tenant database migration failed");
+            problemDetail.setDetail("Database of tenant could not be migrated, so the tenant was not registered");
+            problemDetail.setProperty("tenantId", tenantId);
+            throw new ErrorResponseException(HttpStatus.INTERNAL_SERVER_ERROR, problemDetail, exception);
+        }
+
+        if (!registered) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+            problemDetail.setTitle("Database tenant already registered");
+            problemDetail.setDetail("A database tenant with this ID is registered already");
+            problemDetail.setProperty("tenantId", tenantId);
+            throw new ErrorResponseException(HttpStatus.CONFLICT, problemDetail, null);
+        }
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .build();
+    }
+
+    @DeleteMapping("/{tenantId}")
+    public ResponseEntity<Void> deregisterOne(@PathVariable String tenantId) {
+        LOGGER.info("Removing tenant (tenant={})", tenantId);
+
+        if (!tenantRegistry.deregister(tenantId)) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+            problemDetail.setTitle("Unknown database tenant");
+            problemDetail.setDetail("Tenant ID does not match a known database tenant");
+            problemDetail.setProperty("tenantId", tenantId);
+            throw new ErrorResponseException(HttpStatus.NOT_FOUND, problemDetail, null);
+        }
+
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .build();
+    }
+}
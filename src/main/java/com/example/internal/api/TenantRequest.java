@@ -0,0 +1,21 @@
+package com.example.internal.api;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+public final class TenantRequest {
+
+    @NotBlank(message = "Tenant database URL must be informed")
+    private String url;
+
+    @NotBlank(message = "Tenant database username must be informed")
+    private String username;
+
+    @NotBlank(message = "Tenant database password must be informed")
+    @ToString.Exclude
+    private String password;
+}
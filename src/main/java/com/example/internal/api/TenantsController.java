@@ -0,0 +1,44 @@
+package com.example.internal.api;
+
+import com.example.internal.TenantConnectionBudget;
+import com.example.internal.TenantReadiness;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/tenants")
+public class TenantsController {
+
+    private final TenantConnectionBudget tenantConnectionBudget;
+    private final TenantReadiness tenantReadiness;
+
+    public TenantsController(TenantConnectionBudget tenantConnectionBudget, TenantReadiness tenantReadiness) {
+        this.tenantConnectionBudget = tenantConnectionBudget;
+        this.tenantReadiness = tenantReadiness;
+    }
+
+    @GetMapping
+    public ResponseEntity<TenantsResponse> findAll() {
+        final var tenantsResponse = new TenantsResponse();
+        tenantsResponse.setStates(tenantReadiness.getStates());
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(tenantsResponse);
+    }
+
+    @GetMapping("/pools")
+    public ResponseEntity<TenantPoolsResponse> findPools() {
+        final var allocation = tenantConnectionBudget.getAllocation();
+
+        final var tenantPoolsResponse = new TenantPoolsResponse();
+        tenantPoolsResponse.setBudget(tenantConnectionBudget.getBudget());
+        tenantPoolsResponse.setAllocated(allocation.values().stream().mapToInt(Integer::intValue).sum());
+        tenantPoolsResponse.setAllocation(allocation);
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(tenantPoolsResponse);
+    }
+}
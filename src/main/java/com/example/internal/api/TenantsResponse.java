@@ -0,0 +1,14 @@
+package com.example.internal.api;
+
+import com.example.internal.TenantState;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public final class TenantsResponse {
+
+    private Map<String, TenantState> states;
+}
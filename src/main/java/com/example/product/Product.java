@@ -1,11 +1,9 @@
 package com.example.product;
 
+import com.example.internal.TenantPooledSequence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,8 +15,7 @@ import lombok.NoArgsConstructor;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PRODUCT_ID_SEQUENCE_GENERATOR")
-    @SequenceGenerator(name = "PRODUCT_ID_SEQUENCE_GENERATOR", sequenceName = "PRODUCT_ID_SEQUENCE", allocationSize = 1)
+    @TenantPooledSequence(sequenceName = "PRODUCT_ID_SEQUENCE", allocationSize = 50)
     @Column(name = "PRODUCT_ID")
     private Long id;
 
@@ -0,0 +1,21 @@
+package com.example.product;
+
+// Products of the chunks committed before the failure stay in the database, created tells the caller how many
+public final class ProductBatchException extends RuntimeException {
+
+    private final long created;
+
+    ProductBatchException(long created, RuntimeException cause) {
+        super("Batch of products failed after " + created + " were created", cause);
+        this.created = created;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+        return (RuntimeException) super.getCause();
+    }
+}
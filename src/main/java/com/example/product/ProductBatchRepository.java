@@ -0,0 +1,8 @@
+package com.example.product;
+
+import java.util.Iterator;
+
+public interface ProductBatchRepository {
+
+    long insertInBatches(Iterator<Product> products, int batchSize) throws ProductBatchException;
+}
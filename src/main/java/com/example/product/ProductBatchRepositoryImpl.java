@@ -0,0 +1,50 @@
+package com.example.product;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+
+class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    ProductBatchRepositoryImpl(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Every chunk of batchSize products is committed in a transaction of its own, so a long upload neither holds
+    // a connection nor keeps a transaction open from its first row to its last
+    @Override
+    public long insertInBatches(Iterator<Product> products, int batchSize) throws ProductBatchException {
+        var inserted = 0L;
+
+        try {
+            while (products.hasNext()) {
+                final Integer chunk = transactionTemplate.execute(status -> insertChunk(products, batchSize));
+                inserted += chunk == null ? 0 : chunk;
+            }
+        } catch (RuntimeException exception) {
+            throw new ProductBatchException(inserted, exception);
+        }
+
+        return inserted;
+    }
+
+    // Committing flushes the pending inserts as one JDBC batch, and the session is closed with the transaction
+    private int insertChunk(Iterator<Product> products, int batchSize) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+
+        var count = 0;
+        while (count < batchSize && products.hasNext()) {
+            entityManager.persist(products.next());
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.product;
+
+import com.example.internal.Tenant;
+import com.example.internal.TenantRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Products created concurrently for a tenant are queued and inserted in groups, one transaction per group, so
+// the commit and its fsync are paid once per group instead of once per product. A group is flushed once it is
+// full or once its first product has waited long enough, whichever comes first.
+@Component
+public class ProductGroupCommit {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductGroupCommit.class);
+
+    private final ProductRepository productRepository;
+    private final int maximumBatchSize;
+    private final long maximumWaitNanos;
+    private final Duration timeout;
+    private final Map<String, TenantQueue> queues = new ConcurrentHashMap<>();
+
+    public ProductGroupCommit(ProductRepository productRepository, Environment environment) {
+        this.productRepository = productRepository;
+        this.maximumBatchSize = environment.getProperty(
+                "products.group-commit.maximum-batch-size", Integer.class, 64
+        );
+        this.maximumWaitNanos = environment.getProperty(
+                "products.group-commit.maximum-wait", Duration.class, Duration.ofMillis(5)
+        ).toNanos();
+        this.timeout = environment.getProperty(
+                "products.group-commit.timeout", Duration.class, Duration.ofSeconds(10)
+        );
+    }
+
+    // Completes once the product is committed, with its ID assigned, or with the error that kept it from being
+    // committed, and with a TimeoutException if that takes longer than the timeout
+    public CompletableFuture<Product> submit(Product product) {
+        final var tenant = Tenant.get();
+        if (tenant == null) {
+            throw new IllegalStateException("Cannot queue product of no tenant");
+        }
+
+        final var pending = new Pending(product, System.nanoTime(), new CompletableFuture<>());
+        final var queue = queues.computeIfAbsent(tenant, TenantQueue::new);
+        queue.products.add(pending);
+        queue.startFlushing();
+
+        return pending.created().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onTenantRemoved(TenantRemovedEvent event) {
+        // Whatever is still queued is flushed by the worker, which finds the tenant pool gone and fails the group
+        queues.remove(event.tenant());
+    }
+
+    private void flush(String tenant, List<Pending> group) {
+        // A product whose caller already gave up waiting is not inserted anymore
+        group.removeIf(pending -> pending.created().isDone());
+        if (group.isEmpty()) {
+            return;
+        }
+
+        final var startedAt = System.nanoTime();
+        final var failure = insert(tenant, group);
+        if (failure == null) {
+            LOGGER.debug("Product group committed (tenant={}, products={}, waited={}us, elapsed={}us)",
+                    tenant, group.size(),
+                    (startedAt - group.get(0).queuedAt()) / 1000, (System.nanoTime() - startedAt) / 1000);
+            group.forEach(pending -> pending.created().complete(pending.product()));
+            return;
+        }
+
+        if (group.size() == 1) {
+            LOGGER.warn("Product failed to commit (tenant={}, reason={})", tenant, failure.toString());
+            group.get(0).created().completeExceptionally(failure);
+            return;
+        }
+
+        // A group is a single chunk, so nothing of it was committed, and the product that failed it must not fail
+        // the others too: each one is inserted again on its own and its caller is told its own outcome
+        LOGGER.warn("Product group failed to commit, retrying products one by one (tenant={}, products={}, reason={})",
+                tenant, group.size(), failure.toString());
+        for (final var pending : group) {
+            // The ID assigned before the rollback was never committed, so the product is inserted as a new one
+            pending.product().setId(null);
+            flush(tenant, new ArrayList<>(List.of(pending)));
+        }
+    }
+
+    // Errors are caught as well, since the worker must never end with callers left waiting on its group
+    private Throwable insert(String tenant, List<Pending> group) {
+        try {
+            Tenant.run(tenant, () -> productRepository.insertInBatches(
+                    group.stream().map(Pending::product).iterator(), group.size()
+            ));
+            return null;
+        } catch (Throwable exception) {
+            return exception instanceof ProductBatchException batch ? batch.getCause() : exception;
+        }
+    }
+
+    private record Pending(Product product, long queuedAt, CompletableFuture<Product> created) {
+    }
+
+    // A virtual thread flushes the queue of a tenant while it has products, and ends once the queue runs dry
+    private final class TenantQueue {
+
+        private final String tenant;
+        private final LinkedBlockingQueue<Pending> products = new LinkedBlockingQueue<>();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+
+        private TenantQueue(String tenant) {
+            this.tenant = tenant;
+        }
+
+        private void startFlushing() {
+            if (flushing.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("product-group-commit-" + tenant).start(this::flushWhileQueued);
+            }
+        }
+
+        private void flushWhileQueued() {
+            try {
+                while (true) {
+                    final var first = products.poll();
+                    if (first == null) {
+                        flushing.set(false);
+
+                        // A product queued right after the poll above found this worker still flushing, so it is
+                        // picked up here unless another worker has been started for it meanwhile
+                        if (products.isEmpty() || !flushing.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+
+                    flush(tenant, collectGroup(first));
+                }
+            } catch (Throwable exception) {
+                // The next product queued starts a new worker, and callers of the products left behind time out
+                flushing.set(false);
+                LOGGER.error("Product group worker failed (tenant={}, reason={})", tenant, exception.toString());
+                throw exception;
+            }
+        }
+
+        private List<Pending> collectGroup(Pending first) {
+            final var group = new ArrayList<Pending>(maximumBatchSize);
+            group.add(first);
+
+            final var deadline = first.queuedAt() + maximumWaitNanos;
+            try {
+                while (group.size() < maximumBatchSize) {
+                    final var remaining = deadline - System.nanoTime();
+                    final var next = remaining > 0 ? products.poll(remaining, TimeUnit.NANOSECONDS) : products.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+
+            return group;
+        }
+    }
+}
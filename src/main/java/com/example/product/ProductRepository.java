@@ -1,8 +1,23 @@
 package com.example.product;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Repository
-public interface ProductRepository extends CrudRepository<Product, Long> {
+public interface ProductRepository extends CrudRepository<Product, Long>,
+        ProductStreamingRepository,
+        ProductBatchRepository {
+
+    // Query methods get no transaction of their own, a read-only one is what lets TenantSelector read from a replica
+    @Transactional(readOnly = true)
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Given a class that is not the entity, rows are read into it by a constructor expression, so nothing is
+    // hydrated into the persistence context nor snapshotted for dirty checking
+    @Transactional(readOnly = true)
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit, Class<T> type);
 }
@@ -0,0 +1,8 @@
+package com.example.product;
+
+import java.util.function.Consumer;
+
+public interface ProductStreamingRepository {
+
+    void streamAll(int fetchSize, Consumer<Product> action);
+}
@@ -0,0 +1,43 @@
+package com.example.product;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+class ProductStreamingRepositoryImpl implements ProductStreamingRepository {
+
+    private static final String SELECT_ALL = "SELECT PRODUCT_ID, PRODUCT_NAME FROM PRODUCT ORDER BY PRODUCT_ID";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    ProductStreamingRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void streamAll(int fetchSize, Consumer<Product> action) {
+        // Postgres only uses a server-side cursor for the fetch size when autocommit is off, hence the transaction
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    final var statement = connection.prepareStatement(
+                            SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY
+                    );
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                },
+                (RowCallbackHandler) resultSet -> {
+                    final var product = new Product();
+                    product.setId(resultSet.getLong("PRODUCT_ID"));
+                    product.setName(resultSet.getString("PRODUCT_NAME"));
+                    action.accept(product);
+                }
+        ));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.product;
+
+import com.example.internal.TenantWarmUp;
+import com.example.product.api.ProductResponse;
+import jakarta.persistence.EntityManager;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+// Makes the repository calls of listing and creating products, so the statements warmed up are the ones Hibernate
+// sends for them. The product is flushed to send its insert, the transaction of the warm-up rolls it back.
+@Component
+public class ProductWarmUp implements TenantWarmUp {
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final int pageSize;
+
+    public ProductWarmUp(ProductRepository productRepository, EntityManager entityManager, Environment environment) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.pageSize = environment.getProperty("products.page.default-limit", Integer.class, 100);
+    }
+
+    @Override
+    public void run() {
+        productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(pageSize + 1), ProductResponse.class);
+
+        final var product = new Product();
+        product.setName("warm-up");
+        productRepository.save(product);
+        entityManager.flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.product;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.BiFunction;
+
+// Products of the tenant in the Reactor context, read and written through R2DBC by the reactive stack
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductRepository {
+
+    private static final String SELECT_PAGE = """
+            SELECT PRODUCT_ID, PRODUCT_NAME
+            FROM PRODUCT
+            WHERE PRODUCT_ID > $1
+            ORDER BY PRODUCT_ID
+            LIMIT $2
+            """;
+
+    // A single sequence value is taken per product, which stays clear of the blocks handed out to Hibernate
+    private static final String INSERT = """
+            INSERT INTO PRODUCT (PRODUCT_ID, PRODUCT_NAME)
+            VALUES (nextval('PRODUCT_ID_SEQUENCE'), $1)
+            RETURNING PRODUCT_ID
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Rows are read straight into whatever the caller responds with, given its ID and name
+    public <T> Flux<T> findByIdGreaterThanOrderByIdAsc(long id, int limit, BiFunction<Long, String, T> mapper) {
+        return databaseClient.sql(SELECT_PAGE)
+                .bind(0, id)
+                .bind(1, limit)
+                .map(row -> mapper.apply(row.get("PRODUCT_ID", Long.class), row.get("PRODUCT_NAME", String.class)))
+                .all();
+    }
+
+    public Mono<Product> save(Product product) {
+        return databaseClient.sql(INSERT)
+                .bind(0, product.getName())
+                .map(row -> row.get("PRODUCT_ID", Long.class))
+                .one()
+                .map(id -> {
+                    product.setId(id);
+                    return product;
+                });
+    }
+}
@@ -1,31 +1,77 @@
 package com.example.product.api;
 
+import com.example.internal.Tenant;
 import com.example.product.Product;
+import com.example.product.ProductBatchException;
+import com.example.product.ProductGroupCommit;
 import com.example.product.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProductController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductController.class);
 
+    // One less than the maximum, so the extra row asked for to tell whether there is a next page still fits
+    static final int UNBOUNDED = Integer.MAX_VALUE - 1;
+
     private final ProductRepository productRepository;
+    private final ProductsCache productsCache;
+    private final ProductGroupCommit productGroupCommit;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int streamFetchSize;
+    private final int defaultPageSize;
+    private final int batchSize;
+    private final boolean groupCommit;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository,
+                             ProductsCache productsCache,
+                             ProductGroupCommit productGroupCommit,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             Environment environment) {
         this.productRepository = productRepository;
+        this.productsCache = productsCache;
+        this.productGroupCommit = productGroupCommit;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.streamFetchSize = environment.getProperty("products.stream.fetch-size", Integer.class, 500);
+        this.defaultPageSize = environment.getProperty("products.page.default-limit", Integer.class, 100);
+        this.batchSize = environment.getProperty("products.batch.size", Integer.class, 500);
+        this.groupCommit = environment.getProperty("products.group-commit.enabled", Boolean.class, false);
     }
 
     @PostMapping
@@ -36,7 +82,8 @@ public class ProductController {
         final var product = new Product();
         product.setName(productRequest.getName());
 
-        final var productCreated = productRepository.save(product);
+        final var productCreated = groupCommit ? saveInGroup(product) : productRepository.save(product);
+        productsCache.invalidate();
         LOGGER.info("New product created (product={})", productCreated);
 
         final var productUri = uriComponentsBuilder.path("/{productId}")
@@ -47,23 +94,154 @@ public class ProductController {
                 .build();
     }
 
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductsCreatedResponse> createMany(HttpServletRequest request) throws IOException {
+        LOGGER.info("Creating batch of new products (batchSize={})", batchSize);
+
+        final long created;
+        try (final var parser = objectMapper.createParser(request.getInputStream())) {
+            created = productRepository.insertInBatches(new ProductRequestReader(parser, validator), batchSize);
+            productsCache.invalidate();
+        } catch (ProductBatchException exception) {
+            productsCache.invalidate();
+            throw partiallyCreated(exception);
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        LOGGER.info("Batch of new products created (products={})", created);
+
+        final var productsCreatedResponse = new ProductsCreatedResponse();
+        productsCreatedResponse.setCreated(created);
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(productsCreatedResponse);
+    }
+
     @GetMapping
-    public ResponseEntity<ProductsResponse> findAll() {
-        LOGGER.info("Finding all existing products");
-
-        final var products = new ArrayList<ProductResponse>();
-        for (final var product : productRepository.findAll()) {
-            final var productResponse = new ProductResponse();
-            productResponse.setId(product.getId());
-            productResponse.setName(product.getName());
-            products.add(productResponse);
+    public ResponseEntity<ProductsResponse> findAll(@RequestParam(required = false) @Min(1) @Max(1000) Integer limit,
+                                                    @RequestParam(required = false) String after) {
+        // Without paging parameters every product is returned, as it was before paging was added, so existing
+        // clients keep working. Such a listing is not cached, it would hold a whole table per tenant.
+        final var unbounded = limit == null && after == null;
+        final var pageSize = limit != null ? limit : unbounded ? UNBOUNDED : defaultPageSize;
+        final var afterId = after == null ? 0L : decodeCursor(after);
+        LOGGER.info("Finding page of existing products (limit={}, afterId={})", pageSize, afterId);
+
+        final var productsResponse = unbounded
+                ? findPage(pageSize, afterId)
+                : productsCache.get(pageSize, afterId, () -> findPage(pageSize, afterId));
+        LOGGER.info("Returning page of products found (products={}, next={})",
+                productsResponse.getProducts().size(), productsResponse.getNext());
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(productsResponse);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        LOGGER.info("Streaming all existing products");
+
+        // The body is written on another thread after this method returns, so the tenant is carried over explicitly
+        final var tenant = Tenant.get();
+        final StreamingResponseBody body = outputStream -> {
+            try (final var ignored = Tenant.open(tenant);
+                 final var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+                final var streamed = new long[1];
+                productRepository.streamAll(streamFetchSize, product -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeNumberField("id", product.getId());
+                        generator.writeStringField("name", product.getName());
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                        streamed[0]++;
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+
+                LOGGER.info("Streamed all products found (tenant={}, products={})", tenant, streamed[0]);
+            } catch (UncheckedIOException exception) {
+                throw exception.getCause();
+            }
+        };
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Chunks are committed as they go, so the problem tells how many products were created before the one that
+    // failed, and the client resends the batch from that index on
+    private static ErrorResponseException partiallyCreated(ProductBatchException exception) throws IOException {
+        LOGGER.warn("Batch of new products failed (created={}, reason={})",
+                exception.getCreated(), exception.getCause().toString());
+
+        if (exception.getCause() instanceof UncheckedIOException cause) {
+            throw cause.getCause();
         }
+        if (exception.getCause() instanceof ErrorResponseException cause) {
+            cause.getBody().setProperty("created", exception.getCreated());
+            return cause;
+        }
+
+        final var problemDetail = ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
+        problemDetail.setTitle("Batch of products partially created");
+        problemDetail.setDetail("Products after the first " + exception.getCreated() + " were not created");
+        problemDetail.setProperty("created", exception.getCreated());
+        return new ErrorResponseException(HttpStatus.INTERNAL_SERVER_ERROR, problemDetail, exception.getCause());
+    }
+
+    // Request threads are virtual, so waiting here for the group to commit does not hold a platform thread
+    private Product saveInGroup(Product product) {
+        try {
+            return productGroupCommit.submit(product).join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (exception.getCause() instanceof TimeoutException cause) {
+                final var problemDetail = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+                problemDetail.setTitle("Product not created in time");
+                problemDetail.setDetail("Product was not committed within the group commit timeout");
+                throw new ErrorResponseException(HttpStatus.SERVICE_UNAVAILABLE, problemDetail, cause);
+            }
+            throw exception;
+        }
+    }
+
+    private ProductsResponse findPage(int pageSize, long afterId) {
+        // One row more than requested tells whether there is a next page without counting the table
+        return toProductsResponse(
+                productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1), ProductResponse.class),
+                pageSize
+        );
+    }
+
+    static ProductsResponse toProductsResponse(List<ProductResponse> page, int pageSize) {
+        final var hasNext = page.size() > pageSize;
+        final var products = List.copyOf(hasNext ? page.subList(0, pageSize) : page);
 
         final var productsResponse = new ProductsResponse();
         productsResponse.setProducts(products);
-        LOGGER.info("Returning all products found (products={})", productsResponse);
+        if (hasNext) {
+            productsResponse.setNext(ProductCursor.encode(products.get(products.size() - 1).id()));
+        }
 
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(productsResponse);
+        return productsResponse;
+    }
+
+    static long decodeCursor(String after) {
+        try {
+            return ProductCursor.decode(after);
+        } catch (IllegalArgumentException exception) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+            problemDetail.setTitle("Invalid products cursor");
+            problemDetail.setDetail("Parameter after must be a cursor returned as next by a previous page");
+            problemDetail.setProperty("after", after);
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, problemDetail, exception);
+        }
     }
 }
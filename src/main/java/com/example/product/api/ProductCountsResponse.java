@@ -0,0 +1,14 @@
+package com.example.product.api;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public final class ProductCountsResponse {
+
+    private Map<String, Long> counts;
+    private Map<String, String> failures;
+}
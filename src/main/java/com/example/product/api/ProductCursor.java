@@ -0,0 +1,30 @@
+package com.example.product.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Clients should treat cursors as opaque, so the encoding can change without breaking them
+final class ProductCursor {
+
+    private ProductCursor() {
+    }
+
+    static String encode(long productId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(Long.toString(productId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decode(String cursor) {
+        try {
+            final var productId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (productId < 0) {
+                throw new IllegalArgumentException("Product cursor points to a negative ID: " + cursor);
+            }
+
+            return productId;
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Product cursor is not valid: " + cursor, exception);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.product.api;
+
+import com.example.product.Product;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Reads a JSON array of products one element at a time, so the request body is never held in memory whole
+final class ProductRequestReader implements Iterator<Product> {
+
+    private final JsonParser parser;
+    private final Validator validator;
+
+    private JsonToken token;
+    private long index;
+
+    ProductRequestReader(JsonParser parser, Validator validator) {
+        this.parser = parser;
+        this.validator = validator;
+
+        if (nextToken() != JsonToken.START_ARRAY) {
+            throw malformed("Request body must be a JSON array of products", null);
+        }
+    }
+
+    // Only the end of the array ends the products, anything else would drop the rest of the batch unnoticed
+    @Override
+    public boolean hasNext() {
+        if (token == null) {
+            token = nextToken();
+
+            if (token == null) {
+                throw malformed("Request body ends before the array of products is closed", null);
+            }
+            if (token == JsonToken.END_ARRAY && nextToken() != null) {
+                throw malformed("Request body must end with the array of products", null);
+            }
+            if (token != JsonToken.START_OBJECT && token != JsonToken.END_ARRAY) {
+                throw malformed("Product at index " + index + " must be a JSON object", null);
+            }
+        }
+
+        return token == JsonToken.START_OBJECT;
+    }
+
+    @Override
+    public Product next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final ProductRequest productRequest;
+        try {
+            productRequest = parser.readValueAs(ProductRequest.class);
+        } catch (JsonProcessingException exception) {
+            throw malformed("Product at index " + index + " is not valid JSON", exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        final var violations = validator.validate(productRequest);
+        if (!violations.isEmpty()) {
+            final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+            problemDetail.setTitle("Invalid product in batch");
+            problemDetail.setDetail(violations.iterator().next().getMessage());
+            problemDetail.setProperty("index", index);
+            throw new ErrorResponseException(HttpStatus.BAD_REQUEST, problemDetail, null);
+        }
+
+        token = null;
+        index++;
+
+        final var product = new Product();
+        product.setName(productRequest.getName());
+        return product;
+    }
+
+    private JsonToken nextToken() {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException exception) {
+            throw malformed("Product at index " + index + " is not valid JSON", exception);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static ErrorResponseException malformed(String detail, Throwable cause) {
+        final var problemDetail = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        problemDetail.setTitle("Malformed products batch");
+        problemDetail.setDetail(detail);
+        return new ErrorResponseException(HttpStatus.BAD_REQUEST, problemDetail, cause);
+    }
+}
@@ -1,16 +1,7 @@
 package com.example.product.api;
 
 import jakarta.validation.constraints.NotNull;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
-@Data
-@NoArgsConstructor
-public final class ProductResponse {
-
-    @NotNull
-    private Long id;
-
-    @NotNull
-    private String name;
+// Read straight from the products table by a constructor expression, see ProductRepository
+public record ProductResponse(@NotNull Long id, @NotNull String name) {
 }
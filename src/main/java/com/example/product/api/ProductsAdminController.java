@@ -0,0 +1,53 @@
+package com.example.product.api;
+
+import com.example.internal.TenantFanOut;
+import com.example.product.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/products")
+public class ProductsAdminController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductsAdminController.class);
+
+    private final ProductRepository productRepository;
+    private final ProductsCache productsCache;
+    private final TenantFanOut tenantFanOut;
+
+    public ProductsAdminController(ProductRepository productRepository,
+                                   ProductsCache productsCache,
+                                   TenantFanOut tenantFanOut) {
+        this.productRepository = productRepository;
+        this.productsCache = productsCache;
+        this.tenantFanOut = tenantFanOut;
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<ProductCountsResponse> countPerTenant() {
+        final var result = tenantFanOut.query(productRepository::count);
+        LOGGER.info("Counted products of every tenant (counts={}, failures={})", result.results(), result.failures());
+
+        // Tenants that failed or did not answer in time are listed apart, the others are still returned
+        final var productCountsResponse = new ProductCountsResponse();
+        productCountsResponse.setCounts(result.results());
+        productCountsResponse.setFailures(result.failures());
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(productCountsResponse);
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<ProductsCacheResponse> findCacheStatistics() {
+        final var productsCacheResponse = new ProductsCacheResponse();
+        productsCacheResponse.setTenants(productsCache.getStatistics());
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(productsCacheResponse);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.product.api;
+
+import com.example.internal.Tenant;
+import com.example.internal.TenantRemovedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Pages of products are cached per tenant, a tenant that is never bound is never cached
+@Component
+public class ProductsCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductsCache.class);
+
+    private final Map<String, TenantCache> tenantCaches = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final long ttlNanos;
+
+    public ProductsCache(Environment environment) {
+        this.maximumSize = environment.getProperty("products.cache.maximum-size", Integer.class, 1000);
+        this.ttlNanos = environment.getProperty("products.cache.ttl", Duration.class, Duration.ofMinutes(10)).toNanos();
+    }
+
+    ProductsResponse get(int limit, long afterId, Supplier<ProductsResponse> loader) {
+        final var tenant = Tenant.get();
+        if (tenant == null || maximumSize <= 0) {
+            return loader.get();
+        }
+
+        final var tenantCache = tenantCaches.computeIfAbsent(tenant, key -> new TenantCache(maximumSize));
+        final var key = new Page(limit, afterId);
+
+        final var cached = tenantCache.get(key, System.nanoTime());
+        if (cached != null) {
+            tenantCache.hits.increment();
+            return cached;
+        }
+
+        tenantCache.misses.increment();
+
+        // Captured before loading, so a page read while a write is invalidating the cache is not stored
+        final var generation = tenantCache.generation.get();
+        final var loaded = loader.get();
+        tenantCache.put(key, loaded, generation, System.nanoTime() + ttlNanos);
+        return loaded;
+    }
+
+    void invalidate() {
+        final var tenant = Tenant.get();
+        if (tenant == null) {
+            return;
+        }
+
+        final var tenantCache = tenantCaches.get(tenant);
+        if (tenantCache != null) {
+            tenantCache.clear();
+            LOGGER.debug("Products cache invalidated (tenant={})", tenant);
+        }
+    }
+
+    public Map<String, ProductsCacheStatistics> getStatistics() {
+        final var statistics = new TreeMap<String, ProductsCacheStatistics>();
+        tenantCaches.forEach((tenant, tenantCache) -> {
+            final var tenantStatistics = new ProductsCacheStatistics();
+            tenantStatistics.setHits(tenantCache.hits.sum());
+            tenantStatistics.setMisses(tenantCache.misses.sum());
+            tenantStatistics.setSize(tenantCache.size());
+            statistics.put(tenant, tenantStatistics);
+        });
+
+        return statistics;
+    }
+
+    @EventListener
+    public void onTenantRemoved(TenantRemovedEvent event) {
+        tenantCaches.remove(event.tenant());
+    }
+
+    private record Page(int limit, long afterId) {
+    }
+
+    private record Entry(ProductsResponse value, long expiresAt) {
+    }
+
+    private static final class TenantCache {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong generation = new AtomicLong();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LinkedHashMap<Page, Entry> entries;
+
+        private TenantCache(int maximumSize) {
+            // Access order turns the map into an LRU, the eldest entry is dropped once the tenant is over its bound
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Page, Entry> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        private ProductsResponse get(Page key, long now) {
+            lock.lock();
+            try {
+                final var entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+
+                if (entry.expiresAt() - now < 0) {
+                    entries.remove(key);
+                    return null;
+                }
+
+                return entry.value();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(Page key, ProductsResponse value, long generation, long expiresAt) {
+            lock.lock();
+            try {
+                if (this.generation.get() == generation) {
+                    entries.put(key, new Entry(value, expiresAt));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                generation.incrementAndGet();
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.product.api;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+public final class ProductsCacheResponse {
+
+    private Map<String, ProductsCacheStatistics> tenants;
+}
@@ -0,0 +1,13 @@
+package com.example.product.api;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public final class ProductsCacheStatistics {
+
+    private long hits;
+    private long misses;
+    private int size;
+}
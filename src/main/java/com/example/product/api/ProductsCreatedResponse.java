@@ -0,0 +1,11 @@
+package com.example.product.api;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public final class ProductsCreatedResponse {
+
+    private long created;
+}
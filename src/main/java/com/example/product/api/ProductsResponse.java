@@ -13,4 +13,6 @@ public final class ProductsResponse {
 
     @NotNull
     private List<@Valid ProductResponse> products;
+
+    private String next;
 }
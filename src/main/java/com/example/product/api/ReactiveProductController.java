@@ -0,0 +1,80 @@
+package com.example.product.api;
+
+import com.example.product.Product;
+import com.example.product.ReactiveProductRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+// Same contract as ProductController for single products and pages, served without holding a thread per request
+@RestController
+@RequestMapping("/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveProductController.class);
+
+    private final ReactiveProductRepository productRepository;
+    private final int defaultPageSize;
+
+    public ReactiveProductController(ReactiveProductRepository productRepository, Environment environment) {
+        this.productRepository = productRepository;
+        this.defaultPageSize = environment.getProperty("products.page.default-limit", Integer.class, 100);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> createOne(@Valid @RequestBody ProductRequest productRequest,
+                                                UriComponentsBuilder uriComponentsBuilder) {
+        LOGGER.info("Creating new product (request={})", productRequest);
+
+        final var product = new Product();
+        product.setName(productRequest.getName());
+
+        return productRepository.save(product)
+                .map(productCreated -> {
+                    LOGGER.info("New product created (product={})", productCreated);
+
+                    final var productUri = uriComponentsBuilder.path("/{productId}")
+                            .build(productCreated.getId());
+
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .location(productUri)
+                            .build();
+                });
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<ProductsResponse>> findAll(@RequestParam(required = false) @Min(1) @Max(1000) Integer limit,
+                                                          @RequestParam(required = false) String after) {
+        // Every product without paging parameters, like the servlet stack
+        final var pageSize = limit != null ? limit : after == null ? ProductController.UNBOUNDED : defaultPageSize;
+        final var afterId = after == null ? 0L : ProductController.decodeCursor(after);
+        LOGGER.info("Finding page of existing products (limit={}, afterId={})", pageSize, afterId);
+
+        // One row more than requested tells whether there is a next page without counting the table
+        return productRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageSize + 1, ProductResponse::new)
+                .collectList()
+                .map(page -> {
+                    final var productsResponse = ProductController.toProductsResponse(page, pageSize);
+                    LOGGER.info("Returning page of products found (products={}, next={})",
+                            productsResponse.getProducts().size(), productsResponse.getNext());
+
+                    return ResponseEntity.status(HttpStatus.OK)
+                            .body(productsResponse);
+                });
+    }
+}
@@ -0,0 +1 @@
+ALTER SEQUENCE PRODUCT_ID_SEQUENCE INCREMENT BY 50;
@@ -0,0 +1,298 @@
+package com.example;
+
+import com.example.testing.TenantDatabaseServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Run with ./gradlew loadTest, sized through -Dload.tenants=10,100,1000 -Dload.duration=PT1M -Dload.concurrency=64.
+// The same traffic is driven through each stack of -Dload.stacks=servlet,reactive to compare their throughput.
+@Tag("load")
+class ApplicationLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationLoadTest.class);
+
+    private static final double WRITE_RATIO = 0.1;
+    private static final double SKEW = 1.0;
+
+    @TempDir
+    private Path tenantsLocation;
+
+    @Test
+    void mixedTrafficAcrossTenants() throws Exception {
+        final var tenantCounts = Arrays.stream(System.getProperty("load.tenants", "10,50,100").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .sorted()
+                .toList();
+        final var duration = Duration.parse(System.getProperty("load.duration", "PT30S"));
+        final var concurrency = Integer.getInteger("load.concurrency", 64);
+        final var output = Path.of(System.getProperty("load.output", "build/load-test/results.json"));
+        final var stacks = Arrays.stream(System.getProperty("load.stacks", "servlet,reactive").split(","))
+                .map(String::trim)
+                .toList();
+
+        final var results = new LinkedHashMap<String, Object>();
+        results.put("startedAt", Instant.now().toString());
+        results.put("durationSeconds", duration.toSeconds());
+        results.put("concurrency", concurrency);
+
+        try (final var server = new TenantDatabaseServer(Math.max(200, concurrency * 4))) {
+            final var tenants = new ArrayList<String>();
+            final var startups = new ArrayList<Map<String, Object>>();
+            ConfigurableApplicationContext application = null;
+
+            try {
+                // Each step adds tenants whose databases are still empty, the ones before only take the fast path
+                for (final var tenantCount : tenantCounts) {
+                    final var newTenants = tenantCount - tenants.size();
+                    while (tenants.size() < tenantCount) {
+                        final var tenant = "tenant-%05d".formatted(tenants.size() + 1);
+                        writeTenantProperties(tenant, server.provision(tenant));
+                        tenants.add(tenant);
+                    }
+
+                    if (application != null) {
+                        application.close();
+                    }
+
+                    final var startedAt = System.nanoTime();
+                    application = start(tenants, stacks.get(0));
+                    final var startupMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+                    LOGGER.info("Application started (tenants={}, newTenants={}, elapsed={}ms)",
+                            tenantCount, newTenants, startupMillis);
+                    startups.add(Map.of("tenants", tenantCount, "newTenants", newTenants, "startupMillis", startupMillis));
+                }
+                results.put("startup", startups);
+
+                // The application started last already runs the first stack, the others restart with the same tenants
+                final var byStack = new LinkedHashMap<String, Object>();
+                for (final var stack : stacks) {
+                    if (!byStack.isEmpty()) {
+                        application.close();
+                        application = start(tenants, stack);
+                    }
+
+                    final var port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                    byStack.put(stack, drive(URI.create("http://localhost:" + port), tenants, duration, concurrency));
+                }
+                results.put("stacks", byStack);
+            } finally {
+                if (application != null) {
+                    application.close();
+                }
+            }
+        }
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(output)) {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(writer, results);
+        }
+        LOGGER.info("Load test results written (output={})", output.toAbsolutePath());
+
+        for (final var stack : stacks) {
+            final var summary = (Map<?, ?>) ((Map<?, ?>) results.get("stacks")).get(stack);
+            assertTrue((long) summary.get("requests") > 0, "Load test should complete at least one request on " + stack);
+        }
+    }
+
+    private void writeTenantProperties(String tenant, Map<String, String> properties) throws IOException {
+        final var lines = properties.entrySet().stream()
+                .map(property -> property.getKey() + "=" + property.getValue())
+                .toList();
+
+        Files.write(tenantsLocation.resolve(tenant + ".properties"), lines);
+    }
+
+    private ConfigurableApplicationContext start(List<String> tenants, String stack) {
+        final var properties = Map.<String, Object>of(
+                "spring.main.web-application-type", stack,
+                "datasource.tenants.names", String.join(",", tenants),
+                "datasource.tenants.location", tenantsLocation.toString(),
+                "datasource.tenants.migration.background", "false",
+                "spring.docker.compose.enabled", "false",
+                "server.port", "0"
+        );
+
+        return new SpringApplicationBuilder(Application.class)
+                .initializers(context -> context.getEnvironment()
+                        .getPropertySources()
+                        .addFirst(new MapPropertySource("loadTest", properties)))
+                .run();
+    }
+
+    private Map<String, Object> drive(URI baseUri, List<String> tenants, Duration duration, int concurrency)
+            throws InterruptedException {
+        final var httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        final var distribution = zipf(tenants.size());
+        final var deadline = System.nanoTime() + duration.toNanos();
+
+        final var workers = new ArrayList<Callable<Map<String, Samples>>>();
+        for (var worker = 0; worker < concurrency; worker++) {
+            workers.add(() -> {
+                // Every worker keeps its own samples, they are merged once the run is over
+                final var samples = new HashMap<String, Samples>();
+                final var random = ThreadLocalRandom.current();
+
+                while (System.nanoTime() < deadline) {
+                    final var tenant = tenants.get(sample(distribution, random.nextDouble()));
+                    final var request = random.nextDouble() < WRITE_RATIO
+                            ? HttpRequest.newBuilder(baseUri.resolve("/products"))
+                            .header("X-Tenant-Id", tenant)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"P" + random.nextInt(1_000_000) + "\"}"))
+                            .build()
+                            : HttpRequest.newBuilder(baseUri.resolve("/products?limit=20"))
+                            .header("X-Tenant-Id", tenant)
+                            .GET()
+                            .build();
+
+                    final var startedAt = System.nanoTime();
+                    var failed = false;
+                    try {
+                        failed = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                    } catch (IOException exception) {
+                        failed = true;
+                    }
+
+                    samples.computeIfAbsent(tenant, key -> new Samples()).add(System.nanoTime() - startedAt, failed);
+                }
+
+                return samples;
+            });
+        }
+
+        final var merged = new TreeMap<String, Samples>();
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final var future : executor.invokeAll(workers)) {
+                try {
+                    future.get().forEach((tenant, samples) ->
+                            merged.computeIfAbsent(tenant, key -> new Samples()).addAll(samples));
+                } catch (ExecutionException exception) {
+                    throw new IllegalStateException("Load test worker failed", exception.getCause());
+                }
+            }
+        }
+
+        final var seconds = duration.toNanos() / 1_000_000_000.0;
+        final var total = new Samples();
+        final var perTenant = new LinkedHashMap<String, Object>();
+        merged.forEach((tenant, samples) -> {
+            total.addAll(samples);
+            perTenant.put(tenant, samples.summarize(seconds));
+        });
+
+        final var summary = new LinkedHashMap<String, Object>(total.summarize(seconds));
+        summary.put("tenants", perTenant);
+        LOGGER.info("Load test finished (baseUri={}, requests={}, errors={}, throughput={}/s)",
+                baseUri, summary.get("requests"), summary.get("errors"), summary.get("throughput"));
+        return summary;
+    }
+
+    // Cumulative Zipf distribution, the first tenants are the hot ones
+    private static double[] zipf(int tenants) {
+        final var cumulative = new double[tenants];
+        var sum = 0.0;
+        for (var rank = 0; rank < tenants; rank++) {
+            sum += 1 / Math.pow(rank + 1, SKEW);
+            cumulative[rank] = sum;
+        }
+        for (var rank = 0; rank < tenants; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        return cumulative;
+    }
+
+    private static int sample(double[] cumulative, double value) {
+        final var index = Arrays.binarySearch(cumulative, value);
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    private static final class Samples {
+
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        private void add(long latencyNanos, boolean failed) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+
+            latencies[size++] = latencyNanos;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        private void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, size + other.size));
+            }
+
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        private Map<String, Object> summarize(double seconds) {
+            final var sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+
+            final var summary = new LinkedHashMap<String, Object>();
+            summary.put("requests", (long) size);
+            summary.put("errors", errors);
+            summary.put("throughput", Math.round(size / seconds * 10) / 10.0);
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("p999Millis", percentile(sorted, 0.999));
+            return summary;
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+
+            final var index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example;
+
+import com.example.product.api.ProductRequest;
+import com.example.product.api.ProductResponse;
+import com.example.product.api.ProductsResponse;
+import com.example.testing.TenantDatabase;
+import com.example.testing.TenantDatabases;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The replica is a database of its own, not replicating the primary, so which one served a request shows in its rows
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "datasource.tenants.names=company-r",
+                "datasource.tenants.migration.background=false",
+                "datasource.tenants.replica.check-interval=100ms",
+                // Pages read from the primary before the replica was checked would otherwise be served from the cache
+                "products.cache.maximum-size=0"
+        }
+)
+@TenantDatabases({
+        @TenantDatabase(name = "company-r")
+})
+@Testcontainers
+class ApplicationReplicaTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> REPLICA_DATABASE =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres"));
+
+    @DynamicPropertySource
+    private static void setReplicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("datasource.tenant.company-r.replica.url", REPLICA_DATABASE::getJdbcUrl);
+        registry.add("datasource.tenant.company-r.replica.username", REPLICA_DATABASE::getUsername);
+        registry.add("datasource.tenant.company-r.replica.password", REPLICA_DATABASE::getPassword);
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        Flyway.configure()
+                .locations("db/migration")
+                .dataSource(REPLICA_DATABASE.getJdbcUrl(), REPLICA_DATABASE.getUsername(), REPLICA_DATABASE.getPassword())
+                .load()
+                .migrate();
+
+        replica().update("INSERT INTO PRODUCT (PRODUCT_ID, PRODUCT_NAME) VALUES (1, 'Replica only')");
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void readingPageFromReplicaAndWritingToPrimary() throws InterruptedException {
+        final var productRequest = new ProductRequest();
+        productRequest.setName("Primary only");
+
+        webTestClient.post()
+                .uri("/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-r")
+                .body(BodyInserters.fromValue(productRequest))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CREATED);
+        assertEquals(0, replica().queryForObject(
+                "SELECT COUNT(*) FROM PRODUCT WHERE PRODUCT_NAME = 'Primary only'", Integer.class));
+
+        // Reads go to the primary until the first check of the replica, which the first read starts, completes
+        final var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        List<String> names;
+        do {
+            assertTrue(System.nanoTime() < deadline, "Page was never read from the replica");
+            Thread.sleep(100);
+            names = findPage();
+        } while (!names.equals(List.of("Replica only")));
+    }
+
+    private List<String> findPage() {
+        final var productsResponse = webTestClient.get()
+                .uri("/products?limit=10")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-r")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody(ProductsResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        return productsResponse.getProducts().stream().map(ProductResponse::name).toList();
+    }
+
+    private static JdbcTemplate replica() {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                REPLICA_DATABASE.getJdbcUrl(), REPLICA_DATABASE.getUsername(), REPLICA_DATABASE.getPassword()
+        ));
+    }
+}
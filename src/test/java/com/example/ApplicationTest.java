@@ -1,6 +1,8 @@
 package com.example;
 
+import com.example.internal.api.TenantRequest;
 import com.example.product.api.ProductRequest;
+import com.example.product.api.ProductsResponse;
 import com.example.testing.TenantDatabase;
 import com.example.testing.TenantDatabases;
 import org.junit.jupiter.api.MethodOrderer;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -17,9 +20,20 @@ import org.springframework.web.reactive.function.BodyInserters;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
 @SpringBootTest(
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
-        properties = "datasource.tenants.names=company-x,company-y"
+        properties = {
+                "datasource.tenants.names=company-x,company-y",
+                "datasource.tenants.migration.background=false",
+                "products.page.default-limit=1",
+                "datasource.tenants.registration.enabled=true",
+                "datasource.tenants.registration.allowed-hosts=localhost",
+                // Warm-ups take product IDs, products here are expected to be numbered from 1
+                "datasource.tenants.warm-up.connections=0"
+        }
 )
 @TenantDatabases({
         @TenantDatabase(name = "company-x"),
@@ -31,6 +45,9 @@ class ApplicationTest {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private Environment environment;
+
     @Test
     @Order(1)
     void creatingProductsForTenantX() {
@@ -72,6 +89,26 @@ class ApplicationTest {
 
     @Test
     @Order(3)
+    void creatingProductsInBatchForTenantY() {
+        final var ruler = new ProductRequest();
+        ruler.setName("Ruler");
+
+        final var stapler = new ProductRequest();
+        stapler.setName("Stapler");
+
+        webTestClient.post()
+                .uri("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-y")
+                .body(BodyInserters.fromValue(List.of(ruler, stapler)))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CREATED)
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(2);
+    }
+
+    @Test
+    @Order(4)
     void findProductsFromEachTenant() {
         webTestClient.get()
                 .uri("/products")
@@ -84,7 +121,8 @@ class ApplicationTest {
                 .jsonPath("$.products[0].id").isEqualTo(1)
                 .jsonPath("$.products[0].name").isEqualTo("A4 Paper")
                 .jsonPath("$.products[1].id").isEqualTo(2)
-                .jsonPath("$.products[1].name").isEqualTo("Pencil 1B");
+                .jsonPath("$.products[1].name").isEqualTo("Pencil 1B")
+                .jsonPath("$.next").doesNotExist();
 
         webTestClient.get()
                 .uri("/products")
@@ -94,12 +132,94 @@ class ApplicationTest {
                 .expectStatus().isEqualTo(HttpStatus.OK)
                 .expectBody()
                 .jsonPath("$.products").isArray()
+                .jsonPath("$.products.length()").isEqualTo(3)
                 .jsonPath("$.products[0].id").isEqualTo(1)
                 .jsonPath("$.products[0].name").isEqualTo("Eraser");
     }
 
     @Test
     @Order(4)
+    void streamingProductsFromTenantX() {
+        webTestClient.get()
+                .uri("/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .header("X-Tenant-Id", "company-x")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .isEqualTo("""
+                        {"id":1,"name":"A4 Paper"}
+                        {"id":2,"name":"Pencil 1B"}
+                        """);
+    }
+
+    @Test
+    @Order(4)
+    void pagingThroughProductsFromTenantX() {
+        final var firstPage = webTestClient.get()
+                .uri("/products?limit=1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-x")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody(ProductsResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(firstPage);
+        assertEquals(1, firstPage.getProducts().size());
+        assertEquals("A4 Paper", firstPage.getProducts().get(0).name());
+        assertNotNull(firstPage.getNext());
+
+        webTestClient.get()
+                .uri("/products?limit=1&after={after}", firstPage.getNext())
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-x")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody()
+                .jsonPath("$.products.length()").isEqualTo(1)
+                .jsonPath("$.products[0].name").isEqualTo("Pencil 1B")
+                .jsonPath("$.next").doesNotExist();
+
+        // Once paging, the default limit applies to a page asked for without one
+        webTestClient.get()
+                .uri("/products?after={after}", firstPage.getNext())
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-x")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody()
+                .jsonPath("$.products.length()").isEqualTo(1)
+                .jsonPath("$.products[0].name").isEqualTo("Pencil 1B");
+
+        webTestClient.get()
+                .uri("/products?after=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-x")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Invalid products cursor");
+    }
+
+    @Test
+    @Order(5)
+    void countingProductsOfEveryTenant() {
+        webTestClient.get()
+                .uri("/admin/products/counts")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody()
+                .jsonPath("$.counts.company-x").isEqualTo(2)
+                .jsonPath("$.counts.company-y").isEqualTo(3)
+                .jsonPath("$.failures").isEmpty();
+    }
+
+    @Test
+    @Order(5)
     void errorFindingProductsFromUnknownTenant() {
         final var tenantId = "unknown";
 
@@ -114,4 +234,62 @@ class ApplicationTest {
                 .jsonPath("$.detail").isEqualTo("Value of header X-Tenant-Id does not match a known database tenant")
                 .jsonPath("$.tenantId").isEqualTo(tenantId);
     }
+
+    @Test
+    @Order(6)
+    void addingAndRemovingTenantWithoutRestart() {
+        final var tenantRequest = new TenantRequest();
+        tenantRequest.setUrl(environment.getRequiredProperty("datasource.tenant.company-x.url"));
+        tenantRequest.setUsername(environment.getRequiredProperty("datasource.tenant.company-x.username"));
+        tenantRequest.setPassword(environment.getRequiredProperty("datasource.tenant.company-x.password"));
+
+        webTestClient.put()
+                .uri("/admin/tenants/company-w")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(tenantRequest))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CREATED);
+
+        webTestClient.get()
+                .uri("/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-w")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody()
+                .jsonPath("$.products[0].name").isEqualTo("A4 Paper");
+
+        webTestClient.delete()
+                .uri("/admin/tenants/company-w")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NO_CONTENT);
+
+        webTestClient.get()
+                .uri("/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-w")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Unknown database tenant");
+    }
+
+    @Test
+    @Order(7)
+    void rejectingTenantDatabaseOnHostNotAllowed() {
+        final var tenantRequest = new TenantRequest();
+        tenantRequest.setUrl("jdbc:postgresql://169.254.169.254:5432/postgres");
+        tenantRequest.setUsername("user");
+        tenantRequest.setPassword("password");
+
+        webTestClient.put()
+                .uri("/admin/tenants/company-v")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(tenantRequest))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Tenant database not allowed")
+                .jsonPath("$.tenantId").isEqualTo("company-v");
+    }
 }
@@ -0,0 +1,118 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantCatalogTest {
+
+    @Test
+    void readingTenantPropertiesFromFile() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-a");
+
+        final var tenantCatalog = TenantCatalog.load(environment);
+
+        final var tenant = tenantCatalog.tenant("tenant-a");
+        assertEquals(Set.of("tenant-a"), tenantCatalog.getNames());
+        assertEquals("jdbc:postgresql://localhost:5432/", tenant.getRequiredProperty("url"));
+        assertEquals("user", tenant.getRequiredProperty("username"));
+        assertEquals("password", tenant.getRequiredProperty("password"));
+        assertEquals("jdbc:postgresql://replica:5432/", tenant.getRequiredProperty("replica.url"));
+
+        // Tenants are kept out of the Environment, so its lookups do not grow with them
+        assertNull(environment.getProperty("datasource.tenant.tenant-a.url"));
+    }
+
+    @Test
+    void tenantWithoutPropertiesFile() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-b");
+
+        final var exception = assertThrows(IllegalStateException.class, () -> TenantCatalog.load(environment));
+
+        assertEquals("Property 'datasource.tenant.tenant-b.url' is required", exception.getMessage());
+        assertNull(exception.getCause());
+    }
+
+    @Test
+    void tenantWithReplicaPropertiesButNoReplicaUrl() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-c");
+
+        final var exception = assertThrows(IllegalStateException.class, () -> TenantCatalog.load(environment));
+
+        assertEquals("Property 'datasource.tenant.tenant-c.replica.url' is required", exception.getMessage());
+    }
+
+    @Test
+    void readingSharedDatabaseOfTenantLivingAsSchema() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-d");
+
+        final var tenantCatalog = TenantCatalog.load(environment);
+
+        final var tenant = tenantCatalog.tenant("tenant-d");
+        assertEquals("tenant_d", tenant.getRequiredProperty("schema"));
+        assertEquals("shared-a", tenant.getRequiredProperty("shared-database"));
+        assertEquals("jdbc:postgresql://localhost:5432/shared",
+                tenantCatalog.sharedDatabase("shared-a").getRequiredProperty("url"));
+        assertNull(tenant.getProperty("url"));
+    }
+
+    @Test
+    void readingEveryTenantFromSingleCatalogFile() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.catalog", "classpath:catalog/tenants.properties")
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-e,tenant-f");
+
+        final var tenantCatalog = TenantCatalog.load(environment);
+
+        assertEquals("user-e", tenantCatalog.tenant("tenant-e").getRequiredProperty("username"));
+        assertEquals("tenant_f", tenantCatalog.tenant("tenant-f").getRequiredProperty("schema"));
+        assertEquals("jdbc:postgresql://localhost:5432/shared",
+                tenantCatalog.sharedDatabase("shared-f").getRequiredProperty("url"));
+
+        // Files in the location are not scanned once a catalog file is given
+        assertFalse(tenantCatalog.tenant("tenant-a").containsProperty("url"));
+    }
+
+    @Test
+    void environmentPropertiesWinOverFiles() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-a")
+                .withProperty("datasource.tenant.tenant-a.url", "jdbc:postgresql://elsewhere:5432/")
+                .withProperty("datasource.tenant.tenant-a.weight", "3");
+
+        final var tenant = TenantCatalog.load(environment).tenant("tenant-a");
+
+        assertEquals("jdbc:postgresql://elsewhere:5432/", tenant.getRequiredProperty("url"));
+        assertEquals("user", tenant.getRequiredProperty("username"));
+        assertEquals(3, tenant.getProperty("weight", Integer.class, 1));
+    }
+
+    @Test
+    void passwordsAreMaskedWhenPrinted() {
+        final var environment = new MockEnvironment()
+                .withProperty("datasource.tenants.location", "")
+                .withProperty("datasource.tenants.names", "tenant-a")
+                .withProperty("datasource.tenant.tenant-a.replica.password", "replica-password");
+
+        final var printed = TenantCatalog.load(environment).tenant("tenant-a").toString();
+
+        assertFalse(printed.contains("password=password"), printed);
+        assertFalse(printed.contains("replica-password"), printed);
+    }
+}
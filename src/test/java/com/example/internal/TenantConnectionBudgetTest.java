@@ -0,0 +1,70 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TenantConnectionBudgetTest {
+
+    private final TenantConnectionBudget connectionBudget = new TenantConnectionBudget(10, 6, Duration.ofHours(1));
+
+    @AfterEach
+    void afterEach() {
+        connectionBudget.close();
+    }
+
+    @Test
+    void poolsJoiningReceiveWhatIsLeftOfTheBudget() {
+        final var tenantA = new HikariDataSource();
+        final var tenantB = new HikariDataSource();
+        final var tenantC = new HikariDataSource();
+
+        connectionBudget.track("tenant-a", tenantA, new IdlePoolStats());
+        connectionBudget.track("tenant-b", tenantB, new IdlePoolStats());
+        connectionBudget.track("tenant-c", tenantC, new IdlePoolStats());
+
+        assertEquals(Map.of("tenant-a", 6, "tenant-b", 4, "tenant-c", 1), connectionBudget.getAllocation());
+        assertEquals(6, tenantA.getMaximumPoolSize());
+        assertEquals(4, tenantB.getMaximumPoolSize());
+        assertEquals(1, tenantC.getMaximumPoolSize());
+    }
+
+    @Test
+    void busyPoolsGrowAndIdlePoolsShrinkOnRebalance() {
+        final var tenantA = new HikariDataSource();
+        final var tenantB = new HikariDataSource();
+
+        final var busyTracker = connectionBudget.track("tenant-a", tenantA, new IdlePoolStats());
+        connectionBudget.track("tenant-b", tenantB, new IdlePoolStats());
+        connectionBudget.rebalance();
+
+        assertEquals(Map.of("tenant-a", 1, "tenant-b", 1), connectionBudget.getAllocation());
+
+        busyTracker.recordConnectionUsageMillis(500);
+        connectionBudget.rebalance();
+
+        assertEquals(Map.of("tenant-a", 6, "tenant-b", 1), connectionBudget.getAllocation());
+        assertEquals(6, tenantA.getMaximumPoolSize());
+        assertEquals(1, tenantB.getMaximumPoolSize());
+
+        busyTracker.close();
+        assertEquals(Map.of("tenant-b", 1), connectionBudget.getAllocation());
+    }
+
+    private static final class IdlePoolStats extends PoolStats {
+
+        private IdlePoolStats() {
+            super(0);
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.internal;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantDataSourcesTest {
+
+    private final Map<String, Integer> poolsCreated = new HashMap<>();
+
+    private TenantDataSources tenantDataSources;
+
+    @AfterEach
+    void afterEach() {
+        tenantDataSources.close();
+    }
+
+    @Test
+    void poolIsOpenedOnFirstAccessOnly() {
+        tenantDataSources = new TenantDataSources(this::createDataSource, 10, Duration.ofMinutes(10));
+        assertEquals(0, tenantDataSources.size());
+
+        final var first = tenantDataSources.get("tenant-a");
+        final var second = tenantDataSources.get("tenant-a");
+
+        assertSame(first, second);
+        assertEquals(1, poolsCreated.get("tenant-a"));
+        assertEquals(1, tenantDataSources.size());
+    }
+
+    @Test
+    void leastRecentlyUsedPoolIsClosedWhenLimitIsExceeded() {
+        tenantDataSources = new TenantDataSources(this::createDataSource, 2, Duration.ofMinutes(10));
+
+        final var tenantA = tenantDataSources.get("tenant-a");
+        final var tenantB = tenantDataSources.get("tenant-b");
+        tenantDataSources.get("tenant-a");
+        final var tenantC = tenantDataSources.get("tenant-c");
+
+        assertEquals(2, tenantDataSources.size());
+        assertFalse(tenantA.isClosed());
+        assertTrue(tenantB.isClosed());
+        assertFalse(tenantC.isClosed());
+    }
+
+    @Test
+    void idlePoolIsClosedAndReopenedOnNextAccess() throws InterruptedException {
+        tenantDataSources = new TenantDataSources(this::createDataSource, 10, Duration.ofMillis(1));
+
+        final var evicted = tenantDataSources.get("tenant-a");
+        Thread.sleep(5);
+        tenantDataSources.evictIdle();
+
+        assertTrue(evicted.isClosed());
+        assertEquals(0, tenantDataSources.size());
+
+        final var reopened = tenantDataSources.get("tenant-a");
+        assertNotSame(evicted, reopened);
+        assertEquals(2, poolsCreated.get("tenant-a"));
+    }
+
+    private HikariDataSource createDataSource(String tenant) {
+        poolsCreated.merge(tenant, 1, Integer::sum);
+
+        final var dataSource = new HikariDataSource();
+        dataSource.setPoolName(tenant);
+        return dataSource;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantFanOutTest {
+
+    private final Tenants tenants = new Tenants(List.of("tenant-a", "tenant-b", "tenant-c", "tenant-d"));
+    private final TenantReadiness tenantReadiness = new TenantReadiness(tenants.getNames());
+    private final TenantRequests tenantRequests = new TenantRequests();
+
+    @Test
+    void slowFailingAndUnreadyTenantsAreLeftOutOfResults() {
+        tenantReadiness.set("tenant-a", TenantState.READY);
+        tenantReadiness.set("tenant-b", TenantState.READY);
+        tenantReadiness.set("tenant-c", TenantState.READY);
+        tenantReadiness.set("tenant-d", TenantState.MIGRATING);
+
+        final var tenantFanOut = new TenantFanOut(tenants, tenantReadiness, tenantRequests, 4, Duration.ofMillis(200));
+        final var result = tenantFanOut.query(() -> switch (Tenant.get()) {
+            case "tenant-b" -> throw new IllegalStateException("Database is down");
+            case "tenant-c" -> {
+                try {
+                    Thread.sleep(Duration.ofSeconds(10));
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                yield "late";
+            }
+            default -> Tenant.get().toUpperCase();
+        });
+
+        assertEquals(Map.of("tenant-a", "TENANT-A"), result.results());
+        assertEquals(List.of("tenant-b", "tenant-c", "tenant-d"), List.copyOf(result.failures().keySet()));
+        assertTrue(result.failures().get("tenant-b").contains("Database is down"));
+        assertTrue(result.failures().get("tenant-c").startsWith("Timed out"));
+        assertEquals("Tenant is MIGRATING", result.failures().get("tenant-d"));
+    }
+
+    @Test
+    void concurrencyIsCapped() {
+        tenants.getNames().forEach(tenant -> tenantReadiness.set(tenant, TenantState.READY));
+
+        final var running = new AtomicInteger();
+        final var maximumRunning = new AtomicInteger();
+
+        final var tenantFanOut = new TenantFanOut(tenants, tenantReadiness, tenantRequests, 2, Duration.ofSeconds(5));
+        final var result = tenantFanOut.query(() -> {
+            maximumRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return Tenant.get();
+        });
+
+        assertEquals(4, result.results().size());
+        assertTrue(maximumRunning.get() <= 2);
+        tenants.getNames().forEach(tenant -> assertEquals(0, tenantRequests.getInFlight(tenant)));
+    }
+
+    @Test
+    void timeoutCountsFromStartOfEachQuery() {
+        tenants.getNames().forEach(tenant -> tenantReadiness.set(tenant, TenantState.READY));
+
+        // Taken one at a time the four queries need twice the timeout, each of them alone fits in it
+        final var tenantFanOut = new TenantFanOut(tenants, tenantReadiness, tenantRequests, 1, Duration.ofMillis(500));
+        final var result = tenantFanOut.query(() -> {
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return Tenant.get();
+        });
+
+        assertEquals(4, result.results().size());
+        assertTrue(result.failures().isEmpty(), result.failures().toString());
+    }
+}
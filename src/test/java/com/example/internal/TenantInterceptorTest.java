@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -46,6 +47,23 @@ class TenantInterceptorTest {
                 .jsonPath("$.properties.tenantId").isEqualTo(tenantId);
     }
 
+    @Test
+    void tenantNotReady() {
+        final var tenantId = "company-b";
+
+        webTestClient.get()
+                .uri("/")
+                .header("X-Tenant-Id", tenantId)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "5")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Database tenant not ready")
+                .jsonPath("$.status").isEqualTo(503)
+                .jsonPath("$.properties.tenantId").isEqualTo(tenantId)
+                .jsonPath("$.properties.state").isEqualTo("PENDING");
+    }
+
     @Test
     void knownTenant() {
         final var tenantId = "company-a";
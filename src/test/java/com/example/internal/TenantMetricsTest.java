@@ -0,0 +1,59 @@
+package com.example.internal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TenantMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TenantMetrics tenantMetrics = new TenantMetrics(meterRegistry, 2);
+
+    @Test
+    void tenantsOverTheLimitShareOneTag() {
+        tenantMetrics.recordRequest("tenant-a", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        tenantMetrics.recordRequest("tenant-b", 200, TimeUnit.MILLISECONDS.toNanos(5));
+        tenantMetrics.recordRequest("tenant-c", 500, TimeUnit.MILLISECONDS.toNanos(5));
+        tenantMetrics.recordRequest("tenant-d", 500, TimeUnit.MILLISECONDS.toNanos(5));
+        tenantMetrics.recordRequest("tenant-a", 404, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertEquals(1, meterRegistry.get("tenant.requests").tags("tenant", "tenant-a", "outcome", "SUCCESS").timer().count());
+        assertEquals(1, meterRegistry.get("tenant.requests").tags("tenant", "tenant-a", "outcome", "CLIENT_ERROR").timer().count());
+        assertEquals(2, meterRegistry.get("tenant.requests").tags("tenant", "other", "outcome", "SERVER_ERROR").timer().count());
+        assertEquals(3, meterRegistry.get("tenant.requests").timers().stream()
+                .map(timer -> timer.getId().getTag("tenant"))
+                .distinct()
+                .count());
+    }
+
+    @Test
+    void rejectedRequestsAreCountedByReason() {
+        tenantMetrics.recordRejection(null, "missing");
+        tenantMetrics.recordRejection(null, "unknown");
+        tenantMetrics.recordRejection(null, "unknown");
+        tenantMetrics.recordRejection("tenant-a", "not_ready");
+
+        assertEquals(1, meterRegistry.get("tenant.requests.rejected").tags("tenant", "none", "reason", "missing").counter().count());
+        assertEquals(2, meterRegistry.get("tenant.requests.rejected").tags("tenant", "none", "reason", "unknown").counter().count());
+        assertEquals(1, meterRegistry.get("tenant.requests.rejected").tags("tenant", "tenant-a", "reason", "not_ready").counter().count());
+    }
+
+    @Test
+    void rejectionCountersAreBuiltOnce() {
+        final var counter = tenantMetrics.rejectionCounter("tenant-a", "not_ready");
+        assertSame(counter, tenantMetrics.rejectionCounter("tenant-a", "not_ready"));
+
+        // Once out of the registry, a counter built again would be registered anew instead of the cached one counting
+        meterRegistry.remove(counter);
+        tenantMetrics.recordRejection("tenant-a", "not_ready");
+
+        assertEquals(1, counter.count());
+        assertNull(meterRegistry.find("tenant.requests.rejected").counter());
+    }
+}
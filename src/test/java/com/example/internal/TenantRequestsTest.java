@@ -0,0 +1,89 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TenantRequestsTest {
+
+    private final Map<String, TenantRequests.Limits> limits = Map.of(
+            "tenant-a", new TenantRequests.Limits(8, 1),
+            "tenant-b", new TenantRequests.Limits(8, 1),
+            "tenant-c", new TenantRequests.Limits(8, 2)
+    );
+
+    private final TenantRequests tenantRequests = new TenantRequests(6, limits::get);
+
+    @Test
+    void tenantIsLimitedToItsOwnMaximum() {
+        final var tenantRequests = new TenantRequests(100, limits::get);
+
+        TenantRequests.Bulkhead bulkhead = null;
+        for (var request = 0; request < 8; request++) {
+            bulkhead = tenantRequests.tryAcquire("tenant-a");
+            assertNotNull(bulkhead);
+        }
+        assertNull(tenantRequests.tryAcquire("tenant-a"));
+
+        tenantRequests.release(bulkhead);
+        assertNotNull(tenantRequests.tryAcquire("tenant-a"));
+    }
+
+    @Test
+    void noisyTenantIsHeldToItsShareOnceAtCapacity() {
+        // Alone, the tenant may take the whole capacity
+        for (var request = 0; request < 6; request++) {
+            assertNotNull(tenantRequests.tryAcquire("tenant-a"));
+        }
+        assertNull(tenantRequests.tryAcquire("tenant-a"));
+
+        // Other tenants still get in up to their weighted share, the noisy one does not
+        assertNotNull(tenantRequests.tryAcquire("tenant-b"));
+        assertNotNull(tenantRequests.tryAcquire("tenant-b"));
+        assertNotNull(tenantRequests.tryAcquire("tenant-c"));
+        assertNotNull(tenantRequests.tryAcquire("tenant-c"));
+        assertNull(tenantRequests.tryAcquire("tenant-a"));
+        assertNull(tenantRequests.tryAcquire("tenant-b"));
+    }
+
+    @Test
+    void removedTenantNoLongerCountsTowardsCapacity() {
+        TenantRequests.Bulkhead bulkhead = null;
+        for (var request = 0; request < 6; request++) {
+            bulkhead = tenantRequests.tryAcquire("tenant-a");
+            assertNotNull(bulkhead);
+        }
+
+        tenantRequests.remove("tenant-a");
+        tenantRequests.release(bulkhead);
+
+        assertEquals(0, tenantRequests.getInFlight("tenant-a"));
+        for (var request = 0; request < 6; request++) {
+            assertNotNull(tenantRequests.tryAcquire("tenant-b"));
+        }
+    }
+
+    @Test
+    void lateReleaseLeavesTenantRegisteredAgainAlone() {
+        final var removed = tenantRequests.tryAcquire("tenant-a");
+        tenantRequests.remove("tenant-a");
+
+        // Registered again under the same name, the tenant gets a bulkhead of its own
+        final var registeredAgain = tenantRequests.tryAcquire("tenant-a");
+        tenantRequests.release(removed);
+
+        assertEquals(1, tenantRequests.getInFlight("tenant-a"));
+        tenantRequests.release(registeredAgain);
+        assertEquals(0, tenantRequests.getInFlight("tenant-a"));
+
+        // Totals went back to zero once, so the whole capacity is free again
+        for (var request = 0; request < 6; request++) {
+            assertNotNull(tenantRequests.tryAcquire("tenant-b"));
+        }
+        assertNull(tenantRequests.tryAcquire("tenant-b"));
+    }
+}
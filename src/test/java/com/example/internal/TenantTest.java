@@ -0,0 +1,49 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantTest {
+
+    @Test
+    void nestedScopesRestorePreviousTenant() {
+        assertNull(Tenant.get());
+
+        try (final var ignored = Tenant.open("tenant-a")) {
+            assertEquals("tenant-a", Tenant.get());
+
+            Tenant.run("tenant-b", () -> assertEquals("tenant-b", Tenant.get()));
+            assertEquals("tenant-a", Tenant.get());
+        }
+
+        assertNull(Tenant.get());
+    }
+
+    @Test
+    void tenantIsRemovedWhenActionFails() {
+        assertThrows(IllegalStateException.class, () -> Tenant.run("tenant-a", () -> {
+            throw new IllegalStateException();
+        }));
+
+        assertNull(Tenant.get());
+    }
+
+    @Test
+    void wrappedTaskRunsWithSubmittingTenant() throws Exception {
+        final var tenantSeen = new AtomicReference<String>();
+        final var task = Tenant.call("tenant-a", () -> Tenant.wrap(() -> tenantSeen.set(Tenant.get())));
+
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(task).get();
+        }
+
+        assertEquals("tenant-a", tenantSeen.get());
+        assertNull(Tenant.get());
+    }
+}
@@ -7,19 +7,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.support.GenericApplicationContext;
 import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import javax.sql.DataSource;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Testcontainers
 class TenantsDatabaseInitializerTest {
@@ -71,16 +85,225 @@ class TenantsDatabaseInitializerTest {
         final var migrationRunInTenantB = getMigrationsExecuted(TENANT_B_DATABASE);
 
         assertThat(migrationRunInTenantA)
-                .hasSize(1)
+                .hasSameSizeAs(expectedMigrationFiles)
                 .extracting(MigrationInfo::getScript)
                 .containsExactlyElementsOf(expectedMigrationFiles);
 
         assertThat(migrationRunInTenantB)
-                .hasSize(1)
+                .hasSameSizeAs(expectedMigrationFiles)
                 .extracting(MigrationInfo::getScript)
                 .containsExactlyElementsOf(expectedMigrationFiles);
     }
 
+    @Test
+    void skippingFlywayForTenantsAlreadyUpToDate() {
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        applicationContext.refresh();
+
+        final var tenantMigrations = TenantMigrations.resolve("db/migration");
+
+        assertTrue(tenantMigrations.isUpToDate(new DriverManagerDataSource(
+                TENANT_A_DATABASE.getJdbcUrl(), TENANT_A_DATABASE.getUsername(), TENANT_A_DATABASE.getPassword()
+        ), null));
+        assertTrue(tenantMigrations.isUpToDate(new DriverManagerDataSource(
+                TENANT_B_DATABASE.getJdbcUrl(), TENANT_B_DATABASE.getUsername(), TENANT_B_DATABASE.getPassword()
+        ), null));
+    }
+
+    @Test
+    void collectingEveryFailureWhileMigratingInParallel() {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("parallel", Map.ofEntries(
+                        Map.entry("datasource.tenants.names", "tenant-a,tenant-b,tenant-c"),
+                        Map.entry("datasource.tenants.migration.concurrency", "3"),
+                        Map.entry("datasource.tenants.migration.fail-fast", "false"),
+                        Map.entry("datasource.tenant.tenant-c.url", "jdbc:postgresql://localhost:1/"),
+                        Map.entry("datasource.tenant.tenant-c.username", "user"),
+                        Map.entry("datasource.tenant.tenant-c.password", "password")
+                )));
+
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        final var exception = assertThrows(IllegalStateException.class, applicationContext::refresh);
+
+        assertEquals("Failed to migrate tenant databases [tenant-c]", exception.getMessage());
+        assertThat(exception.getSuppressed()).hasSize(1);
+        assertThat(getMigrationsExecuted(TENANT_A_DATABASE)).hasSameSizeAs(getMigrationFiles());
+        assertThat(getMigrationsExecuted(TENANT_B_DATABASE)).hasSameSizeAs(getMigrationFiles());
+    }
+
+    @Test
+    void failingFastInBackgroundMarksUnfinishedTenantsFailed() throws InterruptedException {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("background", Map.ofEntries(
+                        Map.entry("datasource.tenants.names", "tenant-a,tenant-b,tenant-c"),
+                        Map.entry("datasource.tenants.migration.background", "true"),
+                        Map.entry("datasource.tenants.migration.fail-fast", "true"),
+                        Map.entry("datasource.tenant.tenant-c.url", "jdbc:postgresql://localhost:1/"),
+                        Map.entry("datasource.tenant.tenant-c.username", "user"),
+                        Map.entry("datasource.tenant.tenant-c.password", "password")
+                )));
+
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        applicationContext.refresh();
+
+        // Refresh returns right away, tenants settle once the background migrations have run or been stopped
+        final var tenantReadiness = applicationContext.getBean(TenantReadiness.class);
+        final var deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (tenantReadiness.getStates().values().stream()
+                .anyMatch(state -> state != TenantState.READY && state != TenantState.FAILED)) {
+            assertTrue(System.nanoTime() < deadline, "Tenants did not settle " + tenantReadiness.getStates());
+            Thread.sleep(50);
+        }
+
+        assertEquals(TenantState.FAILED, tenantReadiness.get("tenant-c"));
+    }
+
+    @Test
+    void interruptingMigrationPastItsTimeout() throws SQLException {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("timeout", Map.ofEntries(
+                        Map.entry("datasource.tenants.migration.concurrency", "1"),
+                        Map.entry("datasource.tenants.migration.timeout", "2s"),
+                        Map.entry("datasource.tenants.migration.fail-fast", "false")
+                )));
+
+        Flyway.configure()
+                .locations("db/migration")
+                .dataSource(TENANT_A_DATABASE.getJdbcUrl(), TENANT_A_DATABASE.getUsername(), TENANT_A_DATABASE.getPassword())
+                .load()
+                .migrate();
+
+        // Holding the history table of tenant-a blocks its migration until it is interrupted
+        try (final var connection = DriverManager.getConnection(
+                TENANT_A_DATABASE.getJdbcUrl(), TENANT_A_DATABASE.getUsername(), TENANT_A_DATABASE.getPassword())) {
+            connection.setAutoCommit(false);
+            connection.createStatement().execute("LOCK TABLE FLYWAY_SCHEMA_HISTORY IN ACCESS EXCLUSIVE MODE");
+
+            applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+            final var exception = assertThrows(IllegalStateException.class, applicationContext::refresh);
+
+            // The single migration thread was freed for tenant-b instead of staying blocked on tenant-a
+            assertEquals("Failed to migrate tenant databases [tenant-a]", exception.getMessage());
+            assertThat(exception.getSuppressed()[0]).isInstanceOf(TimeoutException.class);
+            assertThat(getMigrationsExecuted(TENANT_B_DATABASE)).hasSameSizeAs(getMigrationFiles());
+
+            connection.rollback();
+        }
+    }
+
+    @Test
+    void servingTenantFinishingAfterItsTimeout() throws InterruptedException {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("late", Map.ofEntries(
+                        Map.entry("datasource.tenants.migration.background", "true"),
+                        Map.entry("datasource.tenants.migration.timeout", "3s"),
+                        Map.entry("datasource.tenants.migration.fail-fast", "false"),
+                        Map.entry("datasource.tenants.warm-up.connections", "1")
+                )));
+
+        // Outlives the timeout, the warm-up is given up on once interrupted and the migration itself went through
+        applicationContext.registerBean(DataSourceTransactionManager.class,
+                () -> new DataSourceTransactionManager(applicationContext.getBean(DataSource.class)));
+        applicationContext.registerBean(TenantWarmUp.class, () -> () -> {
+            try {
+                Thread.sleep(Duration.ofSeconds(6));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        applicationContext.refresh();
+
+        final var tenantReadiness = applicationContext.getBean(TenantReadiness.class);
+        final var deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (tenantReadiness.getStates().values().stream().anyMatch(state -> state != TenantState.READY)) {
+            assertTrue(System.nanoTime() < deadline, "Tenants did not become READY " + tenantReadiness.getStates());
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void warmingUpTenantsBeforeReportingThemReady() {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("warm-up", Map.ofEntries(
+                        Map.entry("datasource.tenants.warm-up.connections", "2"),
+                        Map.entry("datasource.tenants.warm-up.executions", "3")
+                )));
+
+        final var warmedUp = new ConcurrentLinkedQueue<String>();
+        final var ids = new AtomicLong();
+        applicationContext.registerBean(DataSourceTransactionManager.class,
+                () -> new DataSourceTransactionManager(applicationContext.getBean(DataSource.class)));
+        applicationContext.registerBean(TenantWarmUp.class, () -> () -> {
+            final var jdbcTemplate = new JdbcTemplate(applicationContext.getBean(DataSource.class));
+            jdbcTemplate.update("INSERT INTO PRODUCT (PRODUCT_ID, PRODUCT_NAME) VALUES (?, ?)", -ids.incrementAndGet(), "warm-up");
+            warmedUp.add(Tenant.get());
+            if (Tenant.get().equals("tenant-b")) {
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM MISSING_TABLE", Long.class);
+            }
+        });
+
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        applicationContext.refresh();
+
+        // A failing warm-up slows the first requests down at most, it does not keep the tenant from serving them
+        final var tenantReadiness = applicationContext.getBean(TenantReadiness.class);
+        assertEquals(TenantState.READY, tenantReadiness.get("tenant-a"));
+        assertEquals(TenantState.READY, tenantReadiness.get("tenant-b"));
+
+        // Every execution on every connection, with the tenant bound, until one fails
+        assertThat(warmedUp).filteredOn("tenant-a"::equals).hasSize(6);
+        assertThat(warmedUp).filteredOn("tenant-b"::equals).hasSize(2);
+
+        final var tenantDataSources = applicationContext.getBean(TenantDataSources.class);
+        assertThat(tenantDataSources.get("tenant-a").getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(2);
+        assertThat(tenantDataSources.get("tenant-b").getHikariPoolMXBean().getTotalConnections()).isGreaterThanOrEqualTo(2);
+
+        // What the warm-ups wrote is rolled back
+        final var tenantA = new JdbcTemplate(new DriverManagerDataSource(
+                TENANT_A_DATABASE.getJdbcUrl(), TENANT_A_DATABASE.getUsername(), TENANT_A_DATABASE.getPassword()
+        ));
+        assertEquals(0L, tenantA.queryForObject("SELECT COUNT(*) FROM PRODUCT", Long.class));
+    }
+
+    @Test
+    void migratingTenantsLivingAsSchemasOfSharedDatabase() {
+        applicationContext.getEnvironment()
+                .getPropertySources()
+                .addFirst(new MapPropertySource("schemas", Map.ofEntries(
+                        Map.entry("datasource.tenants.names", "tenant-a,tenant-s,tenant-t"),
+                        Map.entry("datasource.shared-database.shared.url", TENANT_B_DATABASE.getJdbcUrl()),
+                        Map.entry("datasource.shared-database.shared.username", TENANT_B_DATABASE.getUsername()),
+                        Map.entry("datasource.shared-database.shared.password", TENANT_B_DATABASE.getPassword()),
+                        Map.entry("datasource.tenant.tenant-s.shared-database", "shared"),
+                        Map.entry("datasource.tenant.tenant-s.schema", "tenant_s"),
+                        Map.entry("datasource.tenant.tenant-t.shared-database", "shared"),
+                        Map.entry("datasource.tenant.tenant-t.schema", "tenant_t")
+                )));
+
+        applicationContext.addApplicationListener(new TenantsDatabaseInitializer());
+        applicationContext.refresh();
+
+        final var sharedDatabase = new DriverManagerDataSource(
+                TENANT_B_DATABASE.getJdbcUrl(), TENANT_B_DATABASE.getUsername(), TENANT_B_DATABASE.getPassword()
+        );
+        final var tenantMigrations = TenantMigrations.resolve("db/migration");
+        assertTrue(tenantMigrations.isUpToDate(sharedDatabase, "tenant_s"));
+        assertTrue(tenantMigrations.isUpToDate(sharedDatabase, "tenant_t"));
+
+        // Both schemas are served by the one pool of the shared database
+        final var tenantDataSources = applicationContext.getBean(TenantDataSources.class);
+        final var pools = new ArrayList<String>();
+        tenantDataSources.forEach((key, dataSource) -> pools.add(dataSource.getPoolName()));
+        assertThat(pools).containsExactlyInAnyOrder("tenant-tenant-a", "shared-shared");
+    }
+
     private List<MigrationInfo> getMigrationsExecuted(PostgreSQLContainer<?> container) {
         final var environment = applicationContext.getEnvironment();
 
@@ -100,6 +323,7 @@ class TenantsDatabaseInitializerTest {
         try (var files = Files.list(classpath.resolve(migrationsLocation))) {
             return files.map(Path::getFileName)
                     .map(Path::toString)
+                    .sorted()
                     .toList();
         } catch (IOException exception) {
             throw new RuntimeException(exception);
@@ -0,0 +1,34 @@
+package com.example.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantsTest {
+
+    private final Tenants tenants = new Tenants(List.of("tenant-a", "tenant-b"));
+
+    @Test
+    void resolvingKnownTenantToItsRoutingKey() {
+        final var header = new String("tenant-a".toCharArray());
+
+        assertSame(tenants.resolve("tenant-a"), tenants.resolve(header));
+        assertEquals("tenant-a", tenants.resolve(header));
+    }
+
+    @Test
+    void resolvingUnknownOrMissingTenant() {
+        assertNull(tenants.resolve("tenant-c"));
+        assertNull(tenants.resolve(null));
+    }
+
+    @Test
+    void tenantNamesCannotBeChanged() {
+        assertThrows(UnsupportedOperationException.class, () -> tenants.getNames().add("tenant-c"));
+    }
+}
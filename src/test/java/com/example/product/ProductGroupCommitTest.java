@@ -0,0 +1,177 @@
+package com.example.product;
+
+import com.example.internal.Tenant;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductGroupCommitTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("products.group-commit.maximum-batch-size", "4")
+            .withProperty("products.group-commit.maximum-wait", "200ms");
+
+    @Test
+    void productsQueuedTogetherAreCommittedInGroups() throws InterruptedException {
+        final var groups = new CopyOnWriteArrayList<Integer>();
+        final var tenants = new CopyOnWriteArrayList<String>();
+        final var ids = new AtomicLong();
+        final var firstGroupStarted = new CountDownLatch(1);
+        final var releaseFirstGroup = new CountDownLatch(1);
+
+        when(productRepository.insertInBatches(any(), anyInt())).thenAnswer(invocation -> {
+            final Iterator<Product> products = invocation.getArgument(0);
+            tenants.add(Tenant.get());
+
+            var count = 0;
+            while (products.hasNext()) {
+                products.next().setId(ids.incrementAndGet());
+                count++;
+            }
+            groups.add(count);
+
+            // Holds the first group back, so the products queued meanwhile have to wait for the next one
+            firstGroupStarted.countDown();
+            releaseFirstGroup.await();
+            return (long) count;
+        });
+
+        final var productGroupCommit = new ProductGroupCommit(productRepository, environment);
+        final var created = new ArrayList<CompletableFuture<Product>>();
+
+        Tenant.run("tenant-a", () -> {
+            created.add(productGroupCommit.submit(product("First")));
+        });
+        firstGroupStarted.await();
+
+        Tenant.run("tenant-a", () -> {
+            for (var index = 0; index < 6; index++) {
+                created.add(productGroupCommit.submit(product("Product " + index)));
+            }
+        });
+        releaseFirstGroup.countDown();
+
+        final var products = created.stream().map(CompletableFuture::join).toList();
+        assertThat(products).extracting(Product::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(groups).containsExactly(1, 4, 2);
+        assertThat(tenants).containsOnly("tenant-a");
+    }
+
+    @Test
+    void everyProductOfFailedGroupFails() {
+        final var failure = new IllegalStateException("Database unavailable");
+        when(productRepository.insertInBatches(any(), anyInt())).thenThrow(new ProductBatchException(0, failure));
+
+        final var productGroupCommit = new ProductGroupCommit(productRepository, environment);
+        final List<CompletableFuture<Product>> created = Tenant.call("tenant-a", () -> List.of(
+                productGroupCommit.submit(product("Paper")),
+                productGroupCommit.submit(product("Pencil"))
+        ));
+
+        for (final var product : created) {
+            final var exception = assertThrows(CompletionException.class, product::join);
+            assertSame(failure, exception.getCause());
+        }
+    }
+
+    @Test
+    void productFailingItsGroupFailsAlone() {
+        final var failure = new IllegalStateException("Name too long");
+        final var ids = new AtomicLong();
+        when(productRepository.insertInBatches(any(), anyInt())).thenAnswer(invocation -> {
+            final Iterator<Product> iterator = invocation.getArgument(0);
+            final var products = new ArrayList<Product>();
+            iterator.forEachRemaining(products::add);
+
+            products.forEach(product -> product.setId(ids.incrementAndGet()));
+            if (products.stream().anyMatch(product -> product.getName().equals("Bad"))) {
+                throw new ProductBatchException(0, failure);
+            }
+            return (long) products.size();
+        });
+
+        final var productGroupCommit = new ProductGroupCommit(productRepository, environment);
+        final List<CompletableFuture<Product>> created = Tenant.call("tenant-a", () -> List.of(
+                productGroupCommit.submit(product("Paper")),
+                productGroupCommit.submit(product("Bad")),
+                productGroupCommit.submit(product("Pencil"))
+        ));
+
+        assertThat(created.get(0).join().getId()).isNotNull();
+        assertThat(created.get(2).join().getId()).isNotNull();
+        final var exception = assertThrows(CompletionException.class, created.get(1)::join);
+        assertSame(failure, exception.getCause());
+        verify(productRepository, times(4)).insertInBatches(any(), anyInt());
+    }
+
+    @Test
+    void groupsAfterErrorAreStillCommitted() {
+        final var error = new LinkageError("Class not loaded");
+        when(productRepository.insertInBatches(any(), anyInt())).thenThrow(error).thenReturn(1L);
+
+        final var productGroupCommit = new ProductGroupCommit(productRepository, environment);
+
+        final var failed = Tenant.call("tenant-a", () -> productGroupCommit.submit(product("Paper")));
+        final var exception = assertThrows(CompletionException.class, failed::join);
+        assertSame(error, exception.getCause());
+
+        final var created = Tenant.call("tenant-a", () -> productGroupCommit.submit(product("Pencil")));
+        assertEquals("Pencil", created.join().getName());
+    }
+
+    @Test
+    void productNotCommittedInTime() throws InterruptedException {
+        final var releaseGroup = new CountDownLatch(1);
+        when(productRepository.insertInBatches(any(), anyInt())).thenAnswer(invocation -> {
+            releaseGroup.await();
+            return 1L;
+        });
+
+        final var productGroupCommit = new ProductGroupCommit(
+                productRepository, environment.withProperty("products.group-commit.timeout", "300ms")
+        );
+
+        try {
+            final var created = Tenant.call("tenant-a", () -> productGroupCommit.submit(product("Paper")));
+            final var exception = assertThrows(CompletionException.class, created::join);
+            assertThat(exception.getCause()).isInstanceOf(TimeoutException.class);
+        } finally {
+            releaseGroup.countDown();
+        }
+    }
+
+    @Test
+    void productOfNoTenant() {
+        final var productGroupCommit = new ProductGroupCommit(productRepository, environment);
+
+        final var exception = assertThrows(IllegalStateException.class, () -> productGroupCommit.submit(product("Paper")));
+        assertEquals("Cannot queue product of no tenant", exception.getMessage());
+    }
+
+    private static Product product(String name) {
+        final var product = new Product();
+        product.setName(name);
+        return product;
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.product;
 
+import com.example.product.api.ProductResponse;
+import org.hibernate.Session;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -11,11 +18,15 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class ProductRepositoryTest {
 
     @Container
@@ -34,7 +45,11 @@ class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     @Test
+    @Order(1)
     void productIdIsGeneratedSequentially() {
         // Making sure we don't have any records in our database that may mislead test result
         assertEquals(0L, productRepository.count(), "None products should be persisted");
@@ -59,4 +74,51 @@ class ProductRepositoryTest {
 
         assertEquals(2L, productRepository.count(), "Test should finish with two products persisted");
     }
+
+    @Test
+    @Order(2)
+    void productsAreFoundPageByPageAfterGivenId() {
+        for (final var name : List.of("Notebook", "Pen", "Ruler")) {
+            final var product = new Product();
+            product.setName(name);
+            productRepository.save(product);
+        }
+
+        final var firstPage = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        assertEquals(List.of("Notebook", "Pen"), firstPage.stream().map(Product::getName).toList());
+
+        final var lastId = firstPage.get(firstPage.size() - 1).getId();
+        final var secondPage = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(2));
+        assertEquals(List.of("Ruler"), secondPage.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    @Order(3)
+    void productsArePagedIntoResponsesWithoutBeingManaged() {
+        testEntityManager.clear();
+
+        final var page = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2), ProductResponse.class);
+        assertEquals(List.of(new ProductResponse(1L, "Notebook"), new ProductResponse(2L, "Pen")), page);
+
+        // Entities read by the same query would now be in the persistence context, projected rows are not
+        final var session = testEntityManager.getEntityManager().unwrap(Session.class);
+        assertEquals(0, session.getStatistics().getEntityCount());
+    }
+
+    @Test
+    @Order(4)
+    void productsAreInsertedInBatchesWithIdsReservedInBlocks() {
+        final var countBefore = productRepository.count();
+
+        final var products = IntStream.range(0, 120)
+                .mapToObj(index -> {
+                    final var product = new Product();
+                    product.setName("Product " + index);
+                    return product;
+                })
+                .iterator();
+
+        assertEquals(120L, productRepository.insertInBatches(products, 50));
+        assertEquals(countBefore + 120L, productRepository.count());
+    }
 }
@@ -6,12 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 
 @SpringBootTest(
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
-        properties = "datasource.tenants.names=company-z"
+        properties = {
+                "datasource.tenants.names=company-z",
+                "datasource.tenants.migration.background=false",
+                "products.batch.size=1"
+        }
 )
 @TenantDatabases({
         @TenantDatabase(name = "company-z")
@@ -53,4 +58,30 @@ class ProductControllerTest {
                 .exchange()
                 .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    // Each product is a chunk of its own, so the one before the invalid product is already committed
+    @Test
+    void productBatchWithInvalidProduct() {
+        webTestClient.post()
+                .uri("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-z")
+                .bodyValue("[{\"name\":\"Ruler\"},{\"name\":\"MoreThan15chars!\"}]")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.BAD_REQUEST)
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Invalid product in batch")
+                .jsonPath("$.index").isEqualTo(1)
+                .jsonPath("$.created").isEqualTo(1);
+
+        webTestClient.get()
+                .uri("/products")
+                .accept(MediaType.APPLICATION_JSON)
+                .header("X-Tenant-Id", "company-z")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.OK)
+                .expectBody()
+                .jsonPath("$.products.length()").isEqualTo(1)
+                .jsonPath("$.products[0].name").isEqualTo("Ruler");
+    }
+}
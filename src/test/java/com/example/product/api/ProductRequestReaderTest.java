@@ -0,0 +1,59 @@
+package com.example.product.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.ErrorResponseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductRequestReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void readingEveryProductOfArray() throws IOException {
+        final var names = new ArrayList<String>();
+        read("[{\"name\":\"Ruler\"},{\"name\":\"Stapler\"}]  ").forEachRemaining(product -> names.add(product.getName()));
+
+        assertEquals(List.of("Ruler", "Stapler"), names);
+    }
+
+    @Test
+    void productThatIsNotObject() throws IOException {
+        final var reader = read("[{\"name\":\"Ruler\"},5,{\"name\":\"Stapler\"}]");
+        reader.next();
+
+        final var exception = assertThrows(ErrorResponseException.class, reader::hasNext);
+        assertEquals("Product at index 1 must be a JSON object", exception.getBody().getDetail());
+    }
+
+    @Test
+    void contentAfterArray() throws IOException {
+        final var reader = read("[{\"name\":\"Ruler\"}]{\"name\":\"Stapler\"}");
+        reader.next();
+
+        final var exception = assertThrows(ErrorResponseException.class, reader::hasNext);
+        assertEquals("Request body must end with the array of products", exception.getBody().getDetail());
+    }
+
+    @Test
+    void arrayNeverClosed() throws IOException {
+        final var reader = read("[{\"name\":\"Ruler\"}");
+        reader.next();
+
+        assertThrows(ErrorResponseException.class, reader::hasNext);
+    }
+
+    private ProductRequestReader read(String body) throws IOException {
+        return new ProductRequestReader(objectMapper.createParser(body), validator);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.product.api;
+
+import com.example.internal.Tenant;
+import com.example.internal.TenantRemovedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProductsCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final ProductsCache productsCache = new ProductsCache(new MockEnvironment()
+            .withProperty("products.cache.maximum-size", "2"));
+
+    @Test
+    void pagesAreCachedPerTenant() {
+        final var tenantA = Tenant.call("tenant-a", () -> productsCache.get(100, 0, this::load));
+        final var tenantAAgain = Tenant.call("tenant-a", () -> productsCache.get(100, 0, this::load));
+        final var tenantB = Tenant.call("tenant-b", () -> productsCache.get(100, 0, this::load));
+
+        assertSame(tenantA, tenantAAgain);
+        assertNotSame(tenantA, tenantB);
+        assertEquals(2, loads.get());
+
+        final var statistics = productsCache.getStatistics();
+        assertEquals(1, statistics.get("tenant-a").getHits());
+        assertEquals(1, statistics.get("tenant-a").getMisses());
+        assertEquals(0, statistics.get("tenant-b").getHits());
+        assertEquals(1, statistics.get("tenant-b").getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedPageIsEvictedOverTheBound() {
+        Tenant.run("tenant-a", () -> {
+            productsCache.get(100, 0, this::load);
+            productsCache.get(100, 10, this::load);
+            productsCache.get(100, 0, this::load);
+            productsCache.get(100, 20, this::load);
+            productsCache.get(100, 10, this::load);
+        });
+
+        assertEquals(4, loads.get());
+        assertEquals(2, productsCache.getStatistics().get("tenant-a").getSize());
+    }
+
+    @Test
+    void writesInvalidateOnlyTheirTenant() {
+        Tenant.run("tenant-a", () -> productsCache.get(100, 0, this::load));
+        Tenant.run("tenant-b", () -> productsCache.get(100, 0, this::load));
+
+        Tenant.run("tenant-a", productsCache::invalidate);
+
+        assertEquals(0, productsCache.getStatistics().get("tenant-a").getSize());
+        assertEquals(1, productsCache.getStatistics().get("tenant-b").getSize());
+    }
+
+    @Test
+    void pageLoadedWhileInvalidatingIsNotStored() {
+        Tenant.run("tenant-a", () -> productsCache.get(100, 0, () -> {
+            productsCache.invalidate();
+            return load();
+        }));
+
+        assertEquals(0, productsCache.getStatistics().get("tenant-a").getSize());
+    }
+
+    @Test
+    void removedTenantIsForgotten() {
+        Tenant.run("tenant-a", () -> productsCache.get(100, 0, this::load));
+
+        productsCache.onTenantRemoved(new TenantRemovedEvent("tenant-a"));
+
+        assertFalse(productsCache.getStatistics().containsKey("tenant-a"));
+    }
+
+    private ProductsResponse load() {
+        loads.incrementAndGet();
+
+        final var productsResponse = new ProductsResponse();
+        productsResponse.setProducts(List.of());
+        return productsResponse;
+    }
+}
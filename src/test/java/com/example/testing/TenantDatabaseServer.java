@@ -0,0 +1,51 @@
+package com.example.testing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+
+// One Postgres container holding a database per tenant, for suites needing more tenants than containers
+public final class TenantDatabaseServer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantDatabaseServer.class);
+
+    private final PostgreSQLContainer<?> container;
+
+    public TenantDatabaseServer(int maximumConnections) {
+        this.container = new PostgreSQLContainer<>(DockerImageName.parse("postgres"))
+                .withCommand("postgres", "-c", "max_connections=" + maximumConnections);
+        this.container.start();
+    }
+
+    public Map<String, String> provision(String tenant) {
+        final var database = tenant.replace('-', '_');
+
+        try (final var connection = DriverManager.getConnection(
+                container.getJdbcUrl(), container.getUsername(), container.getPassword());
+             final var statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Unable to create database of tenant " + tenant, exception);
+        }
+
+        final var url = "jdbc:postgresql://" + container.getHost() + ":"
+                + container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + database;
+        LOGGER.debug("Database tenant provisioned (tenant={}, url={})", tenant, url);
+
+        return Map.ofEntries(
+                Map.entry("datasource.tenant." + tenant + ".url", url),
+                Map.entry("datasource.tenant." + tenant + ".username", container.getUsername()),
+                Map.entry("datasource.tenant." + tenant + ".password", container.getPassword())
+        );
+    }
+
+    @Override
+    public void close() {
+        container.stop();
+    }
+}
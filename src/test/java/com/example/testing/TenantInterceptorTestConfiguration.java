@@ -1,13 +1,19 @@
 package com.example.testing;
 
 import com.example.internal.TenantInterceptor;
+import com.example.internal.TenantMetrics;
+import com.example.internal.TenantReadiness;
+import com.example.internal.TenantRequests;
+import com.example.internal.TenantState;
 import com.example.internal.Tenants;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
 import java.util.Set;
 
 @TestConfiguration
@@ -15,7 +21,14 @@ public class TenantInterceptorTestConfiguration {
 
     @Bean
     Tenants tenants() {
-        return new Tenants(Set.of("company-a"));
+        return new Tenants(Set.of("company-a", "company-b"));
+    }
+
+    @Bean
+    TenantReadiness tenantReadiness(Tenants tenants) {
+        final var tenantReadiness = new TenantReadiness(tenants.getNames());
+        tenantReadiness.set("company-a", TenantState.READY);
+        return tenantReadiness;
     }
 
     @Bean
@@ -24,11 +37,20 @@ public class TenantInterceptorTestConfiguration {
     }
 
     @Bean
-    WebMvcConfigurer webMvcConfigurer(ObjectMapper objectMapper, Tenants tenants) {
+    WebMvcConfigurer webMvcConfigurer(ObjectMapper objectMapper, Tenants tenants, TenantReadiness tenantReadiness) {
+        final var tenantInterceptor = new TenantInterceptor(
+                objectMapper,
+                tenants,
+                tenantReadiness,
+                new TenantRequests(),
+                new TenantMetrics(new SimpleMeterRegistry(), 100),
+                Duration.ofSeconds(5)
+        );
+
         return new WebMvcConfigurer() {
             @Override
             public void addInterceptors(InterceptorRegistry registry) {
-                registry.addInterceptor(new TenantInterceptor(objectMapper, tenants));
+                registry.addInterceptor(tenantInterceptor);
             }
         };
     }